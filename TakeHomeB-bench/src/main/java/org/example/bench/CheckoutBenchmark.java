@@ -0,0 +1,45 @@
+package org.example.bench;
+
+import org.example.PaymentProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two-call checkout flow from Main: processPayment followed by calculateDeliveryFee.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CheckoutBenchmark {
+
+    public double amount = 100.0;
+    public boolean isFirstOrder = true;
+    public PaymentProcessor.PaymentMethod method = PaymentProcessor.PaymentMethod.CREDIT_CARD;
+
+    private PaymentProcessor processor;
+
+    @Setup
+    public void setUp() {
+        processor = new PaymentProcessor();
+    }
+
+    @Benchmark
+    public double checkout() {
+        double finalAmount = processor.processPayment(amount, isFirstOrder, method);
+        double deliveryFee = processor.calculateDeliveryFee(finalAmount);
+        return finalAmount + deliveryFee;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.bench;
+
+import org.example.PaymentProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * calculateDeliveryFee just below, at and just above the 50.0 threshold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeliveryFeeBenchmark {
+
+    @Param({"49.99", "50.0", "50.01"})
+    public double amount;
+
+    private PaymentProcessor processor;
+
+    @Setup
+    public void setUp() {
+        processor = new PaymentProcessor();
+    }
+
+    @Benchmark
+    public double calculateDeliveryFee() {
+        return processor.calculateDeliveryFee(amount);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.bench;
+
+import org.example.LatencyHistogram;
+import org.example.PaymentProcessor;
+import org.example.PricingLatencyRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of latency recording: LatencyHistogram.record alone, on one thread and on every core
+ * hitting the same bucket, and processPayment with and without a recorder attached. The
+ * difference between the last two is the overhead a checkout pays for recording.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LatencyRecordingBenchmark {
+
+    // non-final so the JIT cannot fold them into constants; pricing latencies share few buckets
+    public long nanos = 40;
+    public double amount = 100.0;
+
+    private LatencyHistogram histogram;
+    private PaymentProcessor recorded;
+    private PaymentProcessor unrecorded;
+
+    @Setup
+    public void setUp() {
+        histogram = new LatencyHistogram();
+        recorded = new PaymentProcessor();
+        recorded.setLatencyRecorder(new PricingLatencyRecorder());
+        unrecorded = new PaymentProcessor();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordOneThread() {
+        histogram.record(nanos);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordAllThreads() {
+        histogram.record(nanos);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public double processPaymentRecorded() {
+        return recorded.processPayment(amount, true, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public double processPaymentUnrecorded() {
+        return unrecorded.processPayment(amount, true, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.bench;
+
+import org.example.PaymentProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * processPayment for every PaymentMethod and first-order combination.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProcessPaymentBenchmark {
+
+    @Param({"CREDIT_CARD", "PAYPAL", "CASH"})
+    public PaymentProcessor.PaymentMethod method;
+
+    @Param({"true", "false"})
+    public boolean isFirstOrder;
+
+    // non-final so the JIT cannot fold the amount into a constant
+    public double amount = 100.0;
+
+    private PaymentProcessor processor;
+
+    @Setup
+    public void setUp() {
+        processor = new PaymentProcessor();
+    }
+
+    @Benchmark
+    public double processPayment() {
+        return processor.processPayment(amount, isFirstOrder, method);
+    }
+}
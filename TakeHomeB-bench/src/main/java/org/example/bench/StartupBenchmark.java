@@ -0,0 +1,105 @@
+package org.example.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching {@code org.example.Main} in a fresh JVM to its first priced line on stdout,
+ * which is what the batch scheduler pays per invocation. {@code jvmFlags} selects the JIT and
+ * default CDS setup and {@code appCdsArchive} whether the AppCDS archive is mapped.
+ *
+ * <p>Main runs from {@code build/takehomeb.jar}, the jar {@code scripts/build-cds-archive.sh}
+ * builds the archive from, since the JVM ignores an archive created for another class path. Both
+ * are found by absolute path under {@code -Dtakehomeb.home}, by default the TakeHomeB directory
+ * next to this module. With the archive on, {@code -Xshare:on} makes a mismatched archive fail the
+ * run instead of being silently skipped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"-Xshare:auto", "-XX:TieredStopAtLevel=1"})
+    public String jvmFlags;
+
+    @Param({"off", "on"})
+    public String appCdsArchive;
+
+    private List<String> command;
+
+    @Setup
+    public void setUp() throws URISyntaxException {
+        Path home = takeHomeBDirectory();
+        Path jar = home.resolve("build").resolve("takehomeb.jar");
+        Path archive = home.resolve("build").resolve("takehomeb.jsa");
+        if (!Files.isRegularFile(jar) || !Files.isRegularFile(archive)) {
+            throw new IllegalStateException("Run " + home.resolve("scripts").resolve("build-cds-archive.sh")
+                    + " first, no " + jar + " or " + archive);
+        }
+
+        command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(Arrays.asList(jvmFlags.trim().split("\\s+")));
+        if (appCdsArchive.equals("on")) {
+            command.add("-Xshare:on");
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+    }
+
+    private static Path takeHomeBDirectory() throws URISyntaxException {
+        String home = System.getProperty("takehomeb.home");
+        if (home != null) {
+            return Paths.get(home).toAbsolutePath().normalize();
+        }
+        // TakeHomeB-bench/target/benchmarks.jar
+        Path benchmarksJar = Paths.get(StartupBenchmark.class.getProtectionDomain().getCodeSource()
+                .getLocation().toURI());
+        return benchmarksJar.getParent().getParent().resolveSibling("TakeHomeB");
+    }
+
+    @Benchmark
+    public String timeToFirstPricedResult() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Final Amount")) {
+                    return line;
+                }
+            }
+            throw new IllegalStateException("Main exited without a priced result");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+}
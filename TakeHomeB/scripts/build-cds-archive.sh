@@ -0,0 +1,26 @@
+#!/usr/bin/env sh
+# Builds build/takehomeb.jar and a dynamic AppCDS archive of the classes Main loads,
+# so short-lived runs map pre-parsed classes instead of loading them from the jar.
+#
+#   scripts/build-cds-archive.sh
+#   java -XX:SharedArchiveFile="$PWD/build/takehomeb.jsa" -XX:TieredStopAtLevel=1 -jar "$PWD/build/takehomeb.jar"
+#
+# The archive is only valid for the JDK build and jar it was created with; rerun after either changes.
+# It records the jar by the absolute path used here, and the JVM ignores the archive unless it is run
+# with that same jar as its class path.
+set -eu
+
+cd "$(dirname "$0")/.."
+BUILD="$(pwd)/build"
+rm -rf build/classes
+mkdir -p build/classes
+
+javac -encoding UTF-8 --add-modules jdk.incubator.vector -d build/classes $(find src/main/java -name '*.java')
+if [ -d src/main/resources ]; then
+    cp -R src/main/resources/. build/classes/
+fi
+jar --create --file build/takehomeb.jar --main-class org.example.Main -C build/classes .
+
+# training run: every class loaded before exit goes into the archive
+java -XX:ArchiveClassesAtExit="$BUILD/takehomeb.jsa" -jar "$BUILD/takehomeb.jar" > /dev/null
+echo "Created $BUILD/takehomeb.jsa for $BUILD/takehomeb.jar"
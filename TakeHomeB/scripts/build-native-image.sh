@@ -0,0 +1,10 @@
+#!/usr/bin/env sh
+# Builds a GraalVM native executable of the pricing CLI at build/takehomeb. Requires
+# native-image on the PATH; build options come from META-INF/native-image in the jar.
+set -eu
+
+cd "$(dirname "$0")/.."
+if [ ! -f build/takehomeb.jar ]; then
+    scripts/build-cds-archive.sh
+fi
+native-image -jar build/takehomeb.jar -o build/takehomeb
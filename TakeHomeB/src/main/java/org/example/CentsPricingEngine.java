@@ -0,0 +1,122 @@
+package org.example;
+
+import java.math.RoundingMode;
+
+/**
+ * Integer-only counterpart of {@link PaymentProcessor}. Amounts are {@code long} cents and
+ * discount and tax rates are basis points, so results carry no floating-point rounding error and
+ * the rounding of the final cent is chosen explicitly. Tax is charged on the discounted amount
+ * and the result is rounded once.
+ */
+public class CentsPricingEngine {
+
+    public static final long BASIS_POINTS = 10_000;
+
+    private static final long DELIVERY_THRESHOLD_CENTS = 5_000;
+    private static final long DELIVERY_FEE_CENTS = 500;
+
+    private final long firstOrderDiscountBps;
+    private final long[] methodDiscountBps = new long[PaymentProcessor.METHODS.length];
+    private final long taxBps;
+    private final RoundingMode roundingMode;
+
+    public CentsPricingEngine() {
+        this(RoundingMode.HALF_UP);
+    }
+
+    public CentsPricingEngine(RoundingMode roundingMode) {
+        this(DiscountRules.DEFAULT, roundingMode);
+    }
+
+    /**
+     * Creates an engine for the given rules; rates are rounded to whole basis points.
+     */
+    public CentsPricingEngine(DiscountRules rules, RoundingMode roundingMode) {
+        if (roundingMode == null) {
+            throw new IllegalArgumentException("Rounding mode must not be null");
+        }
+        this.firstOrderDiscountBps = toBasisPoints(rules.getFirstOrderDiscount());
+        for (PaymentProcessor.PaymentMethod method : PaymentProcessor.METHODS) {
+            methodDiscountBps[method.ordinal()] = toBasisPoints(rules.getMethodDiscount(method));
+        }
+        this.taxBps = toBasisPoints(rules.getTaxRate());
+        this.roundingMode = roundingMode;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    /**
+     * Cent-based equivalent of {@link PaymentProcessor#processPayment(double, boolean, PaymentProcessor.PaymentMethod)}.
+     */
+    public long processPayment(long amountCents, boolean isFirstOrder, PaymentProcessor.PaymentMethod method) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        long discountBps = (isFirstOrder ? firstOrderDiscountBps : 0) + methodDiscountBps[method.ordinal()];
+
+        long scaled = Math.multiplyExact(Math.multiplyExact(amountCents, BASIS_POINTS - discountBps),
+                BASIS_POINTS + taxBps);
+        return divide(scaled, BASIS_POINTS * BASIS_POINTS, roundingMode);
+    }
+
+    public long calculateDeliveryFee(long amountCents) {
+        return amountCents < DELIVERY_THRESHOLD_CENTS ? DELIVERY_FEE_CENTS : 0;
+    }
+
+    public static long toBasisPoints(double rate) {
+        return Math.round(rate * BASIS_POINTS);
+    }
+
+    /**
+     * Converts a dollar amount to cents, rounding half up like {@link PaymentProcessor} does.
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    /**
+     * Divides with the given rounding mode without going through {@code BigDecimal}.
+     */
+    static long divide(long dividend, long divisor, RoundingMode mode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int sign = (dividend ^ divisor) < 0 ? -1 : 1;
+        // compares the discarded fraction with one half
+        int half = Long.compare(Math.abs(remainder) * 2, Math.abs(divisor));
+        boolean awayFromZero;
+
+        switch (mode) {
+            case UP:
+                awayFromZero = true;
+                break;
+            case DOWN:
+                awayFromZero = false;
+                break;
+            case CEILING:
+                awayFromZero = sign > 0;
+                break;
+            case FLOOR:
+                awayFromZero = sign < 0;
+                break;
+            case HALF_UP:
+                awayFromZero = half >= 0;
+                break;
+            case HALF_DOWN:
+                awayFromZero = half > 0;
+                break;
+            case HALF_EVEN:
+                awayFromZero = half > 0 || (half == 0 && (quotient & 1) != 0);
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return awayFromZero ? quotient + sign : quotient;
+    }
+}
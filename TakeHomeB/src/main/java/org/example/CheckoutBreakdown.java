@@ -0,0 +1,48 @@
+package org.example;
+
+/**
+ * Reusable, mutable result of {@link PaymentProcessor#checkout}. All values are in cents so the
+ * parts add up exactly: {@code total = subtotal - discount + tax + deliveryFee}.
+ * Instances are meant to be reused by one thread and are not thread-safe.
+ */
+public final class CheckoutBreakdown {
+
+    long subtotalCents;
+    long discountCents;
+    long taxCents;
+    long deliveryFeeCents;
+    long totalCents;
+
+    /** The amount before discounts, rounded to cents. */
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public long getDiscountCents() {
+        return discountCents;
+    }
+
+    /** Tax charged on top of the discounted amount. */
+    public long getTaxCents() {
+        return taxCents;
+    }
+
+    /** The amount returned by processPayment, in cents. */
+    public long getFinalAmountCents() {
+        return subtotalCents - discountCents + taxCents;
+    }
+
+    public long getDeliveryFeeCents() {
+        return deliveryFeeCents;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutBreakdown{subtotal=" + subtotalCents + ", discount=" + discountCents + ", tax=" + taxCents
+                + ", deliveryFee=" + deliveryFeeCents + ", total=" + totalCents + "}";
+    }
+}
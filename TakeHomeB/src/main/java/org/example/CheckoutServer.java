@@ -0,0 +1,211 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback-only HTTP service exposing the checkout flow of {@link Main} as one endpoint:
+ * <pre>
+ * GET /checkout?amount=100.0&amp;firstOrder=true&amp;method=CREDIT_CARD
+ * </pre>
+ * The same parameters are accepted as a form-encoded POST body. Each request runs on its own
+ * virtual thread when the JVM supports them, so handlers may block on downstream calls without
+ * tying up platform threads; older JVMs fall back to a cached thread pool. Until a real payment
+ * gateway is wired in, a configurable downstream latency stands in for that blocking call.
+ */
+public class CheckoutServer implements AutoCloseable {
+
+    public static final String CHECKOUT_PATH = "/checkout";
+
+    private final PaymentProcessor processor;
+    private final long downstreamLatencyMillis;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private CheckoutServer(PaymentProcessor processor, int port, Duration downstreamLatency) throws IOException {
+        if (downstreamLatency.isNegative()) {
+            throw new IllegalArgumentException("Downstream latency must not be negative");
+        }
+        this.processor = processor;
+        this.downstreamLatencyMillis = downstreamLatency.toMillis();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext(CHECKOUT_PATH, this::handleCheckout);
+    }
+
+    /**
+     * Starts a server on the loopback interface; port 0 picks a free port.
+     */
+    public static CheckoutServer start(PaymentProcessor processor, int port) throws IOException {
+        return start(processor, port, Duration.ZERO);
+    }
+
+    /**
+     * Starts a server whose requests first block for {@code downstreamLatency}, like a call to a
+     * payment gateway would, before they are priced.
+     */
+    public static CheckoutServer start(PaymentProcessor processor, int port, Duration downstreamLatency)
+            throws IOException {
+        CheckoutServer checkoutServer = new CheckoutServer(processor, port, downstreamLatency);
+        checkoutServer.server.start();
+        return checkoutServer;
+    }
+
+    /**
+     * The bound loopback address and port.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handleCheckout(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String query;
+            if ("GET".equals(exchange.getRequestMethod())) {
+                query = exchange.getRequestURI().getRawQuery();
+            } else if ("POST".equals(exchange.getRequestMethod())) {
+                try (InputStream body = exchange.getRequestBody()) {
+                    query = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            } else {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                respond(exchange, 405, "{\"error\":\"Method not allowed\"}");
+                return;
+            }
+
+            String response;
+            try {
+                response = checkout(parseParameters(query));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "{\"error\":\"Interrupted\"}");
+                return;
+            } catch (IllegalArgumentException e) {
+                // messages echo request parameters, so they are escaped like any other untrusted text
+                respond(exchange, 400, "{\"error\":" + jsonString(String.valueOf(e.getMessage())) + "}");
+                return;
+            }
+            respond(exchange, 200, response);
+        }
+    }
+
+    private String checkout(Map<String, String> parameters) throws InterruptedException {
+        double amount = Double.parseDouble(required(parameters, "amount"));
+        // NaN would price to 0.0 and neither NaN nor Infinity is a valid JSON number
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a finite number");
+        }
+        boolean isFirstOrder = Boolean.parseBoolean(parameters.getOrDefault("firstOrder", "false"));
+        PaymentProcessor.PaymentMethod method = PaymentProcessor.PaymentMethod.valueOf(required(parameters, "method"));
+
+        if (downstreamLatencyMillis > 0) {
+            Thread.sleep(downstreamLatencyMillis);
+        }
+
+        // one pass, so listeners see the delivery fee this request is charged
+        CheckoutBreakdown breakdown = processor.checkout(amount, isFirstOrder, method, new CheckoutBreakdown());
+
+        return "{\"amount\":" + amount
+                + ",\"finalAmount\":" + money(breakdown.getFinalAmountCents())
+                + ",\"deliveryFee\":" + money(breakdown.getDeliveryFeeCents())
+                + ",\"total\":" + money(breakdown.getTotalCents()) + "}";
+    }
+
+    // non-negative cents with exactly two decimals, so amounts never carry binary rounding noise
+    private static String money(long cents) {
+        long fraction = cents % 100;
+        return cents / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return value;
+    }
+
+    private static Map<String, String> parseParameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // looked up reflectively so the class still runs on JDKs without virtual threads
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Arguments: port (default 8080) and simulated downstream latency in milliseconds (default 0).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Duration downstreamLatency = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 0);
+        CheckoutServer checkoutServer = start(new PaymentProcessor(), port, downstreamLatency);
+        InetSocketAddress address = checkoutServer.getAddress();
+        System.out.println("Checkout service listening on http://" + address.getHostString() + ":"
+                + address.getPort() + CHECKOUT_PATH);
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+/**
+ * Delivery fees by order amount tier and distance band.
+ *
+ * <p>{@code amountThresholds} and {@code distanceBreaks} are strictly ascending. An amount falls
+ * into tier {@code t} when exactly {@code t} thresholds are less than or equal to it, and a
+ * distance into band {@code b} likewise, so there are {@code thresholds + 1} tiers and
+ * {@code breaks + 1} bands. {@code fees} holds one row of tier fees per band.
+ * {@link #DEFAULT} reproduces {@link PaymentProcessor#calculateDeliveryFee(double)}.
+ *
+ * <p>Both break lists are kept in Eytzinger (breadth-first) order and searched without
+ * data-dependent branches, which keeps lookups cache friendly with thousands of tiers.
+ */
+public final class DeliveryFeeEngine {
+
+    public static final DeliveryFeeEngine DEFAULT = new DeliveryFeeEngine(
+            new double[]{PaymentProcessor.FREE_DELIVERY_THRESHOLD}, new double[0],
+            new double[]{PaymentProcessor.DELIVERY_FEE, 0.0});
+
+    private final EytzingerIndex amountIndex;
+    private final EytzingerIndex distanceIndex;
+    private final int tiers;
+    private final double[] fees;
+
+    public DeliveryFeeEngine(double[] amountThresholds, double[] distanceBreaks, double[] fees) {
+        this.amountIndex = new EytzingerIndex(amountThresholds, "Amount thresholds");
+        this.distanceIndex = new EytzingerIndex(distanceBreaks, "Distance breaks");
+        this.tiers = amountThresholds.length + 1;
+        if (fees.length != tiers * (distanceBreaks.length + 1)) {
+            throw new IllegalArgumentException("Expected " + tiers * (distanceBreaks.length + 1) + " fees");
+        }
+        for (double fee : fees) {
+            if (!(fee >= 0.0) || Double.isInfinite(fee)) {
+                throw new IllegalArgumentException("Fees must be finite and non-negative");
+            }
+        }
+        this.fees = fees.clone();
+    }
+
+    public int getTierCount() {
+        return tiers;
+    }
+
+    public int getBandCount() {
+        return fees.length / tiers;
+    }
+
+    /**
+     * Fee for the nearest distance band.
+     */
+    public double fee(double amount) {
+        return fees[amountIndex.countAtOrBelow(amount)];
+    }
+
+    public double fee(double amount, double distanceKm) {
+        return fees[distanceIndex.countAtOrBelow(distanceKm) * tiers + amountIndex.countAtOrBelow(amount)];
+    }
+
+    /**
+     * Sorted breaks laid out in Eytzinger order, 1-based, with the sorted rank of every slot.
+     */
+    private static final class EytzingerIndex {
+        private final double[] keys;
+        private final int[] ranks;
+
+        EytzingerIndex(double[] sorted, String name) {
+            for (int i = 0; i < sorted.length; i++) {
+                if (!Double.isFinite(sorted[i]) || (i > 0 && !(sorted[i] > sorted[i - 1]))) {
+                    throw new IllegalArgumentException(name + " must be finite and strictly ascending");
+                }
+            }
+            keys = new double[sorted.length + 1];
+            ranks = new int[sorted.length + 1];
+            fill(sorted, 0, 1);
+        }
+
+        private int fill(double[] sorted, int next, int slot) {
+            if (slot < keys.length) {
+                next = fill(sorted, next, 2 * slot);
+                keys[slot] = sorted[next];
+                ranks[slot] = next++;
+                next = fill(sorted, next, 2 * slot + 1);
+            }
+            return next;
+        }
+
+        int countAtOrBelow(double value) {
+            int n = keys.length - 1;
+            int slot = 1;
+            while (slot <= n) {
+                slot = 2 * slot + (keys[slot] <= value ? 1 : 0);
+            }
+            // drop the trailing right turns to land on the first key above the value
+            slot >>= Integer.numberOfTrailingZeros(~slot) + 1;
+            return slot == 0 ? n : ranks[slot];
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Immutable set of discount and tax rates used by {@link PaymentProcessor}. Discounts are
+ * deducted from the amount first and tax is charged on the discounted amount.
+ * Rules are compiled into a discount-factor table when they are created, so swapping the
+ * rules of a processor is a single reference write and pricing never interprets them.
+ * Every rate must be between 0 and 1, and so must the first-order and method discounts combined.
+ *
+ * <p>Configuration keys, all optional and defaulting to {@link #DEFAULT}:
+ * <pre>
+ * discount.firstOrder=0.1
+ * discount.method.CREDIT_CARD=0.05
+ * discount.method.PAYPAL=0.02
+ * discount.method.CASH=0.0
+ * tax.rate=0.15
+ * </pre>
+ */
+public final class DiscountRules {
+
+    public static final String FIRST_ORDER_KEY = "discount.firstOrder";
+    public static final String METHOD_KEY_PREFIX = "discount.method.";
+    public static final String TAX_RATE_KEY = "tax.rate";
+
+    public static final DiscountRules DEFAULT = new DiscountRules(0.1, new double[]{0.05, 0.02, 0.0}, 0.15);
+
+    private final double firstOrderDiscount;
+    private final double[] methodDiscounts;
+    private final double taxRate;
+    final double[] discountFactors;
+    final double taxFactor;
+
+    private DiscountRules(double firstOrderDiscount, double[] methodDiscounts, double taxRate) {
+        this.firstOrderDiscount = checkRate(firstOrderDiscount, "Discount");
+        for (double discount : methodDiscounts) {
+            checkRate(discount, "Discount");
+        }
+        this.methodDiscounts = methodDiscounts;
+        this.taxRate = checkRate(taxRate, "Tax rate");
+        this.discountFactors = compile();
+        this.taxFactor = 1 + taxRate;
+    }
+
+    public static DiscountRules load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return load(properties);
+    }
+
+    public static DiscountRules load(Properties properties) {
+        double[] methodDiscounts = DEFAULT.methodDiscounts.clone();
+        for (PaymentProcessor.PaymentMethod method : PaymentProcessor.METHODS) {
+            methodDiscounts[method.ordinal()] = rate(properties, METHOD_KEY_PREFIX + method.name(),
+                    methodDiscounts[method.ordinal()]);
+        }
+        return new DiscountRules(rate(properties, FIRST_ORDER_KEY, DEFAULT.firstOrderDiscount),
+                methodDiscounts, rate(properties, TAX_RATE_KEY, DEFAULT.taxRate));
+    }
+
+    public double getFirstOrderDiscount() {
+        return firstOrderDiscount;
+    }
+
+    public double getMethodDiscount(PaymentProcessor.PaymentMethod method) {
+        return methodDiscounts[method.ordinal()];
+    }
+
+    public double getTaxRate() {
+        return taxRate;
+    }
+
+    public DiscountRules withFirstOrderDiscount(double discount) {
+        return new DiscountRules(discount, methodDiscounts, taxRate);
+    }
+
+    public DiscountRules withMethodDiscount(PaymentProcessor.PaymentMethod method, double discount) {
+        double[] discounts = methodDiscounts.clone();
+        discounts[method.ordinal()] = discount;
+        return new DiscountRules(firstOrderDiscount, discounts, taxRate);
+    }
+
+    public DiscountRules withTaxRate(double rate) {
+        return new DiscountRules(firstOrderDiscount, methodDiscounts, rate);
+    }
+
+    static int factorIndex(boolean isFirstOrder, int methodOrdinal) {
+        return (isFirstOrder ? PaymentProcessor.METHODS.length : 0) + methodOrdinal;
+    }
+
+    // accumulates in the order of the original if/switch so results stay bit for bit the same
+    private double[] compile() {
+        double[] factors = new double[2 * methodDiscounts.length];
+        for (int first = 0; first < 2; first++) {
+            for (int method = 0; method < methodDiscounts.length; method++) {
+                double discount = 0.0;
+                if (first == 1) {
+                    discount += firstOrderDiscount;
+                }
+                discount += methodDiscounts[method];
+                if (discount > 1.0) {
+                    throw new IllegalArgumentException("Combined discount for " + (first == 1 ? "first " : "")
+                            + PaymentProcessor.METHODS[method] + " orders must not exceed 1: " + discount);
+                }
+                factors[factorIndex(first == 1, method)] = 1 - discount;
+            }
+        }
+        return factors;
+    }
+
+    private static double rate(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate for " + key + ": " + value, e);
+        }
+    }
+
+    private static double checkRate(double rate, String name) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+        return rate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DiscountRules)) {
+            return false;
+        }
+        DiscountRules other = (DiscountRules) o;
+        return Double.compare(firstOrderDiscount, other.firstOrderDiscount) == 0
+                && Arrays.equals(methodDiscounts, other.methodDiscounts)
+                && Double.compare(taxRate, other.taxRate) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Double.hashCode(firstOrderDiscount) + Arrays.hashCode(methodDiscounts))
+                + Double.hashCode(taxRate);
+    }
+
+    @Override
+    public String toString() {
+        return "DiscountRules{firstOrder=" + firstOrderDiscount + ", methods=" + Arrays.toString(methodDiscounts)
+                + ", tax=" + taxRate + "}";
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Set of customer IDs that have already ordered, stored as a compressed bitmap in the style of
+ * Roaring: the high 16 bits of an ID select a container, and each container holds the low 16
+ * bits either as a sorted array (sparse, up to {@value #ARRAY_CONTAINER_MAX} IDs) or as a
+ * 65536-bit bitmap (dense). A hundred million dense IDs take about 12 MB.
+ *
+ * <p>{@link #markOrdered(int)} checks and records an ID atomically, so concurrent checkouts of the
+ * same customer see exactly one first order. Each container is guarded by its own monitor.
+ */
+public class FirstOrderTracker {
+
+    static final int ARRAY_CONTAINER_MAX = 4096;
+
+    private final AtomicReferenceArray<Container> containers = new AtomicReferenceArray<>(1 << 16);
+    private final AtomicLong customerCount = new AtomicLong();
+
+    public boolean hasOrdered(int customerId) {
+        Container container = containers.get(customerId >>> 16);
+        return container != null && container.contains((char) customerId);
+    }
+
+    /**
+     * Records an order of the customer.
+     *
+     * @return true if this is the customer's first order
+     */
+    public boolean markOrdered(int customerId) {
+        int index = customerId >>> 16;
+        Container container = containers.get(index);
+        if (container == null) {
+            containers.compareAndSet(index, null, new Container());
+            container = containers.get(index);
+        }
+        boolean first = container.add((char) customerId);
+        if (first) {
+            customerCount.incrementAndGet();
+        }
+        return first;
+    }
+
+    public long getCustomerCount() {
+        return customerCount.get();
+    }
+
+    /**
+     * Approximate heap used by the containers, excluding object headers.
+     */
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (int i = 0; i < containers.length(); i++) {
+            Container container = containers.get(i);
+            if (container != null) {
+                bytes += container.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private static final class Container {
+        private char[] array = new char[4];
+        private int size;
+        private long[] bitmap;
+
+        synchronized boolean contains(char low) {
+            if (bitmap != null) {
+                return (bitmap[low >>> 6] & (1L << low)) != 0;
+            }
+            return binarySearch(low) >= 0;
+        }
+
+        synchronized boolean add(char low) {
+            if (bitmap != null) {
+                long word = bitmap[low >>> 6];
+                bitmap[low >>> 6] = word | (1L << low);
+                return (word & (1L << low)) == 0;
+            }
+
+            int position = binarySearch(low);
+            if (position >= 0) {
+                return false;
+            }
+            if (size == ARRAY_CONTAINER_MAX) {
+                toBitmap();
+                bitmap[low >>> 6] |= 1L << low;
+                return true;
+            }
+
+            position = -position - 1;
+            if (size == array.length) {
+                char[] grown = new char[Math.min(ARRAY_CONTAINER_MAX, array.length * 2)];
+                System.arraycopy(array, 0, grown, 0, size);
+                array = grown;
+            }
+            System.arraycopy(array, position, array, position + 1, size - position);
+            array[position] = low;
+            size++;
+            return true;
+        }
+
+        synchronized long sizeInBytes() {
+            return bitmap != null ? bitmap.length * 8L : array.length * 2L;
+        }
+
+        private void toBitmap() {
+            bitmap = new long[1 << 10];
+            for (int i = 0; i < size; i++) {
+                bitmap[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        private int binarySearch(char low) {
+            int from = 0;
+            int to = size - 1;
+            while (from <= to) {
+                int middle = (from + to) >>> 1;
+                char value = array[middle];
+                if (value < low) {
+                    from = middle + 1;
+                } else if (value > low) {
+                    to = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(from + 1);
+        }
+    }
+}
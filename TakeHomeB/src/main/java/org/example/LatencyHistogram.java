@@ -0,0 +1,99 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size log-linear histogram of nanosecond latencies in the style of HdrHistogram.
+ * Values below 256 are counted exactly; above that every power of two is split into 128
+ * buckets, so reported percentiles are within 1% of the recorded value. Values above
+ * {@link #MAX_VALUE} are counted as {@code MAX_VALUE}.
+ *
+ * <p>Latencies crowd into a handful of buckets, so every bucket is a {@link LongAdder}: threads
+ * recording into the same bucket increment their own striped cell instead of contending on one
+ * cache line, and readers merge the cells into a snapshot. Recording never allocates once a
+ * bucket's cells exist; readers may run concurrently with writers and see a slightly stale view.
+ */
+public final class LatencyHistogram {
+
+    /** Largest value tracked exactly, about 68 seconds. */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 63 - Long.numberOfLeadingZeros(MAX_VALUE) - SUB_BUCKET_BITS;
+
+    private final LongAdder[] counts = new LongAdder[(MAX_SHIFT << SUB_BUCKET_BITS) + 2 * SUB_BUCKET_COUNT];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        counts[indexOf(Math.max(0, Math.min(nanos, MAX_VALUE)))].increment();
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the highest value equivalent to the recorded value at the given percentile,
+     * or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        // one merged snapshot, so the rank and the walk see the same counts
+        long[] snapshot = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(snapshot.length - 1);
+    }
+
+    public long getMaxValue() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i].sum() != 0) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+    }
+
+    static int indexOf(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -2,20 +2,36 @@ package org.example;
 
 import org.example.PaymentProcessor;
 
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         PaymentProcessor processor = new PaymentProcessor();
 
+        if (args.length > 0 && args[0].equals("--stream")) {
+            // payment records on stdin, results on stdout, see StreamingPaymentProcessor
+            new StreamingPaymentProcessor(processor).process(new FileInputStream(FileDescriptor.in).getChannel(),
+                    new FileOutputStream(FileDescriptor.out).getChannel());
+            return;
+        }
+
         double amount = 100.0;
         boolean isFirstOrder = true;
         PaymentProcessor.PaymentMethod method = PaymentProcessor.PaymentMethod.CREDIT_CARD;
 
-        double finalAmount = processor.processPayment(amount, isFirstOrder, method);
-        double deliveryFee = processor.calculateDeliveryFee(finalAmount);
+        CheckoutBreakdown breakdown = processor.checkout(amount, isFirstOrder, method, new CheckoutBreakdown());
 
-        System.out.println("Original Amount: $" + amount);
-        System.out.println("Final Amount after discounts: $" + finalAmount);
-        System.out.println("Delivery Fee: $" + deliveryFee);
-        System.out.println("Total to be paid: $" + (finalAmount + deliveryFee));
+        // explicit StringBuilder: string concatenation would bootstrap invokedynamic at startup
+        String lineSeparator = System.lineSeparator();
+        StringBuilder out = new StringBuilder(160)
+                .append("Original Amount: $").append(amount).append(lineSeparator)
+                .append("Final Amount after discounts: $").append(breakdown.getFinalAmountCents() / 100.0)
+                .append(lineSeparator)
+                .append("Delivery Fee: $").append(breakdown.getDeliveryFeeCents() / 100.0).append(lineSeparator)
+                .append("Total to be paid: $").append(breakdown.getTotalCents() / 100.0).append(lineSeparator);
+        System.out.print(out);
     }
 }
\ No newline at end of file
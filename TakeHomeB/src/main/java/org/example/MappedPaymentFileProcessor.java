@@ -0,0 +1,99 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Prices a file of payment records through memory-mapped windows and writes the results to a
+ * memory-mapped output file. Records are priced with {@link PaymentProcessor#checkout}, so listeners
+ * see the delivery fee. See {@link PaymentRecordCodec} for the record formats.
+ *
+ * <p>Files larger than a window are processed window by window; a record that crosses a window
+ * boundary is re-read at the start of the next window. No objects are created per record.
+ */
+public class MappedPaymentFileProcessor {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final PaymentProcessor processor;
+    private final int windowSize;
+
+    public MappedPaymentFileProcessor(PaymentProcessor processor) {
+        this(processor, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedPaymentFileProcessor(PaymentProcessor processor, int windowSize) {
+        if (windowSize < 2 * PaymentRecordCodec.MAX_RESULT_BYTES) {
+            throw new IllegalArgumentException("Window size too small: " + windowSize);
+        }
+        this.processor = processor;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Prices every record of {@code input} into {@code output}, replacing its contents.
+     *
+     * @return the number of records processed
+     */
+    public long process(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            PaymentRecordCodec record = new PaymentRecordCodec();
+            CheckoutBreakdown breakdown = new CheckoutBreakdown();
+            long size = in.size();
+            long inputOffset = 0;
+            long outputOffset = 0;
+            long records = 0;
+
+            MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, outputOffset, windowSize);
+            int targetPosition = 0;
+
+            try {
+                while (inputOffset < size) {
+                    int length = (int) Math.min(windowSize, size - inputOffset);
+                    boolean lastWindow = inputOffset + length == size;
+                    MappedByteBuffer source = in.map(FileChannel.MapMode.READ_ONLY, inputOffset, length);
+
+                    int position = 0;
+                    int next;
+                    while ((next = record.parse(source, position, length, lastWindow)) >= 0) {
+                        if (record.error != null) {
+                            throw new IllegalArgumentException(record.errorMessage());
+                        }
+                        processor.checkout(record.amount, record.isFirstOrder,
+                                PaymentProcessor.METHODS[record.methodOrdinal], breakdown);
+
+                        if (windowSize - targetPosition < PaymentRecordCodec.MAX_RESULT_BYTES) {
+                            target = out.map(FileChannel.MapMode.READ_WRITE, outputOffset + targetPosition,
+                                    windowSize);
+                            outputOffset += targetPosition;
+                            targetPosition = 0;
+                        }
+                        targetPosition = PaymentRecordCodec.writeResult(target, targetPosition, breakdown);
+                        records++;
+                        position = next;
+                    }
+
+                    if (lastWindow) {
+                        break;
+                    }
+                    if (position == 0) {
+                        throw new IOException("Payment record at byte " + inputOffset + " exceeds the window size");
+                    }
+                    inputOffset += position;
+                }
+
+                target.force();
+                return records;
+            } finally {
+                // also on failure, so a partial output ends after its last complete result
+                out.truncate(outputOffset + targetPosition);
+            }
+        }
+    }
+}
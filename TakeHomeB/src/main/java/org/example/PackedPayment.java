@@ -0,0 +1,43 @@
+package org.example;
+
+/**
+ * Packs a payment request into one {@code long}: the amount in cents in bits 0-55, the
+ * first-order flag in bit 56 and the {@link PaymentProcessor.PaymentMethod} ordinal from bit 57.
+ * A {@code long[]} of packed requests keeps eight of them per cache line; price them with
+ * {@link PaymentProcessor#processPacked(long)} or {@link PaymentProcessor#processPayments(long[], double[])}.
+ */
+public final class PackedPayment {
+
+    public static final int AMOUNT_BITS = 56;
+    public static final long MAX_AMOUNT_CENTS = (1L << AMOUNT_BITS) - 1;
+
+    private static final int FIRST_ORDER_BIT = AMOUNT_BITS;
+    private static final int METHOD_SHIFT = AMOUNT_BITS + 1;
+
+    private PackedPayment() {
+    }
+
+    public static long pack(long amountCents, boolean isFirstOrder, PaymentProcessor.PaymentMethod method) {
+        if (amountCents < 0 || amountCents > MAX_AMOUNT_CENTS) {
+            throw new IllegalArgumentException("Amount out of range: " + amountCents);
+        }
+        return amountCents | (isFirstOrder ? 1L << FIRST_ORDER_BIT : 0L) | ((long) method.ordinal() << METHOD_SHIFT);
+    }
+
+    public static long amountCents(long packed) {
+        return packed & MAX_AMOUNT_CENTS;
+    }
+
+    public static boolean isFirstOrder(long packed) {
+        return (packed & (1L << FIRST_ORDER_BIT)) != 0;
+    }
+
+    /** The raw method ordinal, not checked against {@link PaymentProcessor.PaymentMethod}. */
+    public static int methodOrdinal(long packed) {
+        return (int) (packed >>> METHOD_SHIFT);
+    }
+
+    public static PaymentProcessor.PaymentMethod method(long packed) {
+        return PaymentProcessor.METHODS[PaymentProcessor.checkMethod(methodOrdinal(packed))];
+    }
+}
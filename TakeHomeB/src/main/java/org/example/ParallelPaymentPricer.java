@@ -0,0 +1,135 @@
+package org.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Prices large columnar batches across a {@link ForkJoinPool}. The batch is split in halves
+ * until a range is at most {@code splitThreshold} rows, and every range is priced like
+ * {@link PaymentProcessor#processPayments(double[], boolean[], byte[], double[], int, int)}.
+ * Each row is written to its own index and the whole batch is priced with the rules read once at
+ * the start of the call, so results are deterministic and in input order even if the rules
+ * change meanwhile. Listeners are notified in row order once every range has been priced, and
+ * not at all when the call fails.
+ */
+public class ParallelPaymentPricer implements AutoCloseable {
+
+    public static final int DEFAULT_SPLIT_THRESHOLD = 16 * 1024;
+
+    private final PaymentProcessor processor;
+    private final ForkJoinPool pool;
+    private final int splitThreshold;
+
+    public ParallelPaymentPricer(PaymentProcessor processor) {
+        this(processor, Runtime.getRuntime().availableProcessors(), DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    public ParallelPaymentPricer(PaymentProcessor processor, int parallelism, int splitThreshold) {
+        if (splitThreshold < 1) {
+            throw new IllegalArgumentException("Split threshold must be positive");
+        }
+        this.processor = processor;
+        this.pool = new ForkJoinPool(parallelism);
+        this.splitThreshold = splitThreshold;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    /**
+     * Parallel equivalent of {@link PaymentProcessor#processPayments(double[], boolean[], byte[], double[])}.
+     * An invalid amount fails the whole call with the same exception as the sequential path.
+     */
+    public void processPayments(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results) {
+        checkColumns(amounts, isFirstOrder, methods, results);
+        DiscountRules rules = processor.getRules();
+        pool.invoke(new PricingTask(rules, amounts, isFirstOrder, methods, results, null, 0, amounts.length));
+        processor.notifyListeners(rules.discountFactors, amounts, isFirstOrder, methods, results, null,
+                0, amounts.length);
+    }
+
+    /**
+     * Parallel equivalent of {@link PaymentProcessor#processPayments(double[], boolean[], byte[], double[], byte[])}:
+     * invalid rows are reported in {@code statuses} instead of failing the call.
+     *
+     * @return the number of invalid rows
+     */
+    public int processPayments(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results,
+                               byte[] statuses) {
+        checkColumns(amounts, isFirstOrder, methods, results);
+        if (statuses.length < amounts.length) {
+            throw new IndexOutOfBoundsException("Columns shorter than " + amounts.length + " rows");
+        }
+        DiscountRules rules = processor.getRules();
+        PricingTask task = new PricingTask(rules, amounts, isFirstOrder, methods, results, statuses,
+                0, amounts.length);
+        pool.invoke(task);
+        processor.notifyListeners(rules.discountFactors, amounts, isFirstOrder, methods, results, null,
+                0, amounts.length);
+        return task.invalid;
+    }
+
+    private static void checkColumns(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results) {
+        if (isFirstOrder.length < amounts.length || methods.length < amounts.length
+                || results.length < amounts.length) {
+            throw new IndexOutOfBoundsException("Columns shorter than " + amounts.length + " rows");
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // ForkJoinTask is Serializable but these tasks never leave the pool
+    @SuppressWarnings("serial")
+    private final class PricingTask extends RecursiveAction {
+        private final DiscountRules rules;
+        private final double[] amounts;
+        private final boolean[] isFirstOrder;
+        private final byte[] methods;
+        private final double[] results;
+        private final byte[] statuses;
+        private final int from;
+        private final int to;
+        // invalid rows in [from, to) when statuses are reported; read after join, so no boxing per task
+        int invalid;
+
+        PricingTask(DiscountRules rules, double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results,
+                    byte[] statuses, int from, int to) {
+            this.rules = rules;
+            this.amounts = amounts;
+            this.isFirstOrder = isFirstOrder;
+            this.methods = methods;
+            this.results = results;
+            this.statuses = statuses;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= splitThreshold) {
+                if (statuses == null) {
+                    PaymentProcessor.priceRows(rules, amounts, isFirstOrder, methods, results, from, to);
+                } else {
+                    invalid = PaymentProcessor.priceRows(rules, amounts, isFirstOrder, methods, results, statuses,
+                            from, to);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            PricingTask left = new PricingTask(rules, amounts, isFirstOrder, methods, results, statuses, from, middle);
+            PricingTask right = new PricingTask(rules, amounts, isFirstOrder, methods, results, statuses, middle, to);
+            left.fork();
+            right.compute();
+            left.join();
+            invalid = left.invalid + right.invalid;
+        }
+    }
+}
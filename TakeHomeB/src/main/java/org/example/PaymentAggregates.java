@@ -0,0 +1,81 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Live totals per {@link PaymentProcessor.PaymentMethod}: gross amount, discount given and
+ * transaction count, all in cents. Register it with {@link PaymentProcessor#addPaymentListener}.
+ *
+ * <p>Counters are striped like {@link java.util.concurrent.atomic.LongAdder}: each thread adds to
+ * the stripe its identity hashes to, and every stripe sits in its own padded region of one
+ * {@code long[]} so stripes never share a cache line. Reads sum the stripes and may miss updates
+ * that are still in flight.
+ */
+public class PaymentAggregates implements PaymentListener {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int GROSS = 0;
+    private static final int DISCOUNT = 1;
+    private static final int COUNT = 2;
+    private static final int METRICS = 3;
+    // 128 bytes of padding on each side, enough for adjacent-line prefetching
+    private static final int PADDING = 16;
+    private static final int STRIDE = PADDING + METRICS * PaymentProcessor.METHODS.length;
+
+    private final int stripeMask;
+    private final long[] cells;
+
+    public PaymentAggregates() {
+        int stripes = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.stripeMask = stripes - 1;
+        this.cells = new long[stripes * STRIDE + PADDING];
+    }
+
+    @Override
+    public void onPayment(double amount, boolean isFirstOrder, PaymentProcessor.PaymentMethod method,
+                          double finalAmount, double taxAmount, double deliveryFee) {
+        long grossCents = Math.round(amount * 100.0);
+        long discountedCents = Math.round((finalAmount - taxAmount) * 100.0);
+        int base = stripeBase() + METRICS * method.ordinal();
+        LONGS.getAndAdd(cells, base + GROSS, grossCents);
+        LONGS.getAndAdd(cells, base + DISCOUNT, grossCents - discountedCents);
+        LONGS.getAndAdd(cells, base + COUNT, 1L);
+    }
+
+    public long getGrossCents(PaymentProcessor.PaymentMethod method) {
+        return sum(method, GROSS);
+    }
+
+    public long getDiscountCents(PaymentProcessor.PaymentMethod method) {
+        return sum(method, DISCOUNT);
+    }
+
+    public long getCount(PaymentProcessor.PaymentMethod method) {
+        return sum(method, COUNT);
+    }
+
+    public void reset() {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = PADDING + stripe * STRIDE;
+            for (int i = base; i < base + STRIDE - PADDING; i++) {
+                LONGS.setVolatile(cells, i, 0L);
+            }
+        }
+    }
+
+    private long sum(PaymentProcessor.PaymentMethod method, int metric) {
+        long total = 0;
+        int offset = PADDING + METRICS * method.ordinal() + metric;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            total += (long) LONGS.getVolatile(cells, offset + stripe * STRIDE);
+        }
+        return total;
+    }
+
+    private int stripeBase() {
+        int hash = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+        return PADDING + ((hash >>> 16) & stripeMask) * STRIDE;
+    }
+}
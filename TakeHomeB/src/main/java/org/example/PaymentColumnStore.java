@@ -0,0 +1,171 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process store of priced payments, kept column by column in direct buffers so that millions of
+ * rows stay off the Java heap. Rows are added as a {@link PaymentListener} or from a
+ * {@link CheckoutBreakdown}. Listener rows whose call charged no delivery fee, such as
+ * {@code processPayment} quotes, get a delivery fee of 0. Queries scan the timestamp column and one value column and group the
+ * result by {@link PaymentProcessor.PaymentMethod}.
+ *
+ * <p>The store has a fixed capacity. Once it is full, payments reported as a listener are dropped
+ * and counted in {@link #getDroppedCount}, so a full store never fails a pricing call; the
+ * explicit {@code append} methods throw instead. Appends are serialized by the store's monitor and a row
+ * becomes visible to queries once it is fully written; queries do not block appends.
+ */
+public class PaymentColumnStore implements PaymentListener {
+
+    /** Value columns that can be summed, all in cents. */
+    public enum Column {
+        AMOUNT, DISCOUNT, TAX, DELIVERY_FEE
+    }
+
+    public static final int MAX_CAPACITY = Integer.MAX_VALUE / Long.BYTES;
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final LongSupplier clock;
+    private final int capacity;
+    private final ByteBuffer timestamps;
+    private final ByteBuffer[] values = new ByteBuffer[COLUMNS.length];
+    private final ByteBuffer methods;
+    private final ByteBuffer firstOrders;
+    private final LongAdder dropped = new LongAdder();
+    private volatile int size;
+
+    public PaymentColumnStore(int capacity) {
+        this(capacity, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds
+     */
+    public PaymentColumnStore(int capacity, LongSupplier clock) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        this.clock = clock;
+        this.capacity = capacity;
+        this.timestamps = longColumn(capacity);
+        for (Column column : COLUMNS) {
+            values[column.ordinal()] = longColumn(capacity);
+        }
+        this.methods = ByteBuffer.allocateDirect(capacity);
+        this.firstOrders = ByteBuffer.allocateDirect(capacity);
+    }
+
+    @Override
+    public void onPayment(double amount, boolean isFirstOrder, PaymentProcessor.PaymentMethod method,
+                          double finalAmount, double taxAmount, double deliveryFee) {
+        long amountCents = Math.round(amount * 100.0);
+        long taxCents = Math.round(taxAmount * 100.0);
+        long discountCents = amountCents - (Math.round(finalAmount * 100.0) - taxCents);
+        // like the journal, a payment priced without a fee is stored as charged none
+        long deliveryFeeCents = Double.isNaN(deliveryFee) ? 0 : Math.round(deliveryFee * 100.0);
+        if (!tryAppend(clock.getAsLong(), isFirstOrder, method, amountCents, discountCents, taxCents,
+                deliveryFeeCents)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Adds the payment described by a breakdown from {@link PaymentProcessor#checkout}.
+     */
+    public void append(long timestampMillis, boolean isFirstOrder, PaymentProcessor.PaymentMethod method,
+                       CheckoutBreakdown breakdown) {
+        append(timestampMillis, isFirstOrder, method, breakdown.getSubtotalCents(), breakdown.getDiscountCents(),
+                breakdown.getTaxCents(), breakdown.getDeliveryFeeCents());
+    }
+
+    public void append(long timestampMillis, boolean isFirstOrder, PaymentProcessor.PaymentMethod method,
+                       long amountCents, long discountCents, long taxCents, long deliveryFeeCents) {
+        if (!tryAppend(timestampMillis, isFirstOrder, method, amountCents, discountCents, taxCents,
+                deliveryFeeCents)) {
+            throw new IllegalStateException("Column store is full");
+        }
+    }
+
+    private synchronized boolean tryAppend(long timestampMillis, boolean isFirstOrder,
+                                           PaymentProcessor.PaymentMethod method, long amountCents,
+                                           long discountCents, long taxCents, long deliveryFeeCents) {
+        int row = size;
+        if (row == capacity) {
+            return false;
+        }
+        int offset = row * Long.BYTES;
+        timestamps.putLong(offset, timestampMillis);
+        values[Column.AMOUNT.ordinal()].putLong(offset, amountCents);
+        values[Column.DISCOUNT.ordinal()].putLong(offset, discountCents);
+        values[Column.TAX.ordinal()].putLong(offset, taxCents);
+        values[Column.DELIVERY_FEE.ordinal()].putLong(offset, deliveryFeeCents);
+        methods.put(row, (byte) method.ordinal());
+        firstOrders.put(row, isFirstOrder ? (byte) 1 : 0);
+        size = row + 1;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of listener payments dropped because the store was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Sums a column over the rows with a timestamp in {@code [fromMillis, toMillis)}.
+     *
+     * @return the sums indexed by {@link PaymentProcessor.PaymentMethod#ordinal()}
+     */
+    public long[] sumByMethod(Column column, long fromMillis, long toMillis) {
+        return scan(values[column.ordinal()], fromMillis, toMillis, -1);
+    }
+
+    /**
+     * Like {@link #sumByMethod(Column, long, long)}, restricted to first orders or to repeat orders.
+     */
+    public long[] sumByMethod(Column column, long fromMillis, long toMillis, boolean isFirstOrder) {
+        return scan(values[column.ordinal()], fromMillis, toMillis, isFirstOrder ? 1 : 0);
+    }
+
+    /**
+     * Counts the rows with a timestamp in {@code [fromMillis, toMillis)}.
+     *
+     * @return the counts indexed by {@link PaymentProcessor.PaymentMethod#ordinal()}
+     */
+    public long[] countByMethod(long fromMillis, long toMillis) {
+        return scan(null, fromMillis, toMillis, -1);
+    }
+
+    public long[] countByMethod(long fromMillis, long toMillis, boolean isFirstOrder) {
+        return scan(null, fromMillis, toMillis, isFirstOrder ? 1 : 0);
+    }
+
+    private long[] scan(ByteBuffer column, long fromMillis, long toMillis, int firstOrder) {
+        long[] totals = new long[PaymentProcessor.METHODS.length];
+        int rows = size;
+        for (int row = 0; row < rows; row++) {
+            long timestamp = timestamps.getLong(row * Long.BYTES);
+            if (timestamp >= fromMillis && timestamp < toMillis
+                    && (firstOrder < 0 || firstOrders.get(row) == firstOrder)) {
+                totals[methods.get(row)] += column == null ? 1 : column.getLong(row * Long.BYTES);
+            }
+        }
+        return totals;
+    }
+
+    private static ByteBuffer longColumn(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,282 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Append-only journal of priced payments. Register it with
+ * {@link PaymentProcessor#addPaymentListener} and every payment is written, together with the
+ * delivery fee the call charged (0 when it charged none), as a fixed-size record into
+ * memory-mapped segment files named after the sequence number of their first record. A full
+ * segment is closed and the next one is created; {@link FsyncPolicy} controls how often mapped
+ * pages are forced to disk.
+ *
+ * <p>Listener appends never throw onto the pricing thread: I/O failures are counted and the last
+ * one is kept for {@link #getLastFailure}, and payments arriving after {@link #close} are ignored.
+ * Closing also removes the journal from its processor.
+ *
+ * <p>Record layout (little endian, {@value #RECORD_SIZE} bytes): timestamp millis, amount,
+ * final amount, delivery fee, method ordinal, flags. The flags byte is written last and always has
+ * its written bit set, so reopening a journal finds the end of the last segment by scanning for
+ * the first empty record. Appends are serialized by the journal's monitor.
+ */
+public class PaymentJournal implements PaymentListener, Closeable {
+
+    public enum FsyncPolicy {
+        /** Leave flushing to the operating system. */
+        NONE,
+        /** Force a segment when it is full and on close. */
+        EVERY_SEGMENT,
+        /** Force every record before the append returns. */
+        EVERY_RECORD
+    }
+
+    /**
+     * Receives records in journal order from {@link #replay}.
+     */
+    public interface RecordHandler {
+        void onRecord(long sequence, long timestampMillis, double amount, boolean isFirstOrder,
+                      PaymentProcessor.PaymentMethod method, double finalAmount, double deliveryFee);
+    }
+
+    static final int RECORD_SIZE = 40;
+    static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final int MAGIC = 0x504A4E4C; // "PJNL"
+    private static final int HEADER_SIZE = 16;
+    private static final byte WRITTEN = 1;
+    private static final byte FIRST_ORDER = 2;
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final PaymentProcessor processor;
+    private final FsyncPolicy fsyncPolicy;
+    private final int recordsPerSegment;
+    private final LongSupplier clock;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int segmentCapacity;
+    private long sequence;
+    private boolean closed;
+    private long failedAppends;
+    private IOException lastFailure;
+
+    public PaymentJournal(Path directory, PaymentProcessor processor) throws IOException {
+        this(directory, processor, FsyncPolicy.EVERY_SEGMENT, DEFAULT_RECORDS_PER_SEGMENT, System::currentTimeMillis);
+    }
+
+    /**
+     * Opens the journal in {@code directory}, creating it if needed and continuing after the last
+     * record of an existing one. The last existing segment is filled at its own size.
+     *
+     * @param clock current time in milliseconds
+     */
+    public PaymentJournal(Path directory, PaymentProcessor processor, FsyncPolicy fsyncPolicy,
+                          int recordsPerSegment, LongSupplier clock) throws IOException {
+        if (recordsPerSegment < 1 || recordsPerSegment > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid records per segment: " + recordsPerSegment);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.processor = processor;
+        this.fsyncPolicy = fsyncPolicy;
+        this.recordsPerSegment = recordsPerSegment;
+        this.clock = clock;
+
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            reopen(segments.get(segments.size() - 1));
+        }
+    }
+
+    @Override
+    public synchronized void onPayment(double amount, boolean isFirstOrder, PaymentProcessor.PaymentMethod method,
+                                       double finalAmount, double taxAmount, double deliveryFee) {
+        if (closed) {
+            return;
+        }
+        try {
+            // like the column store, a payment priced without a fee is logged as charged none
+            append(clock.getAsLong(), amount, isFirstOrder, method, finalAmount,
+                    Double.isNaN(deliveryFee) ? 0.0 : deliveryFee);
+        } catch (IOException e) {
+            recordFailure(e);
+        } catch (UncheckedIOException e) {
+            recordFailure(e.getCause());
+        }
+    }
+
+    private void recordFailure(IOException e) {
+        failedAppends++;
+        lastFailure = e;
+    }
+
+    /**
+     * Appends one record.
+     *
+     * @return the record's sequence number
+     */
+    public synchronized long append(long timestampMillis, double amount, boolean isFirstOrder,
+                                    PaymentProcessor.PaymentMethod method, double finalAmount,
+                                    double deliveryFee) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (sequence - segmentStart == segmentCapacity) {
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                segment.force();
+            }
+            channel.close();
+            openSegment(sequence);
+        }
+        int offset = HEADER_SIZE + (int) (sequence - segmentStart) * RECORD_SIZE;
+        segment.putLong(offset, timestampMillis);
+        segment.putDouble(offset + 8, amount);
+        segment.putDouble(offset + 16, finalAmount);
+        segment.putDouble(offset + 24, deliveryFee);
+        segment.put(offset + 32, (byte) method.ordinal());
+        segment.put(offset + 33, isFirstOrder ? (byte) (WRITTEN | FIRST_ORDER) : WRITTEN);
+        if (fsyncPolicy == FsyncPolicy.EVERY_RECORD) {
+            segment.force(offset, RECORD_SIZE);
+        }
+        return sequence++;
+    }
+
+    /**
+     * Number of records in the journal, which is also the next sequence number.
+     */
+    public synchronized long size() {
+        return sequence;
+    }
+
+    /**
+     * Number of listener appends lost to I/O failures.
+     */
+    public synchronized long getFailedAppends() {
+        return failedAppends;
+    }
+
+    /**
+     * The most recent I/O failure of a listener append, or null.
+     */
+    public synchronized IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    public synchronized void force() {
+        if (!closed) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // outside the monitor, so closing never waits on the processor while holding the journal
+        processor.removePaymentListener(this);
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                segment.force();
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads every record of the journal in {@code directory} in order.
+     *
+     * @return the number of records read
+     */
+    public static long replay(Path directory, RecordHandler handler) throws IOException {
+        long records = 0;
+        for (Path file : segments(directory)) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = map(in, FileChannel.MapMode.READ_ONLY, in.size());
+                long first = checkHeader(buffer, file);
+                for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= buffer.capacity(); offset += RECORD_SIZE) {
+                    byte flags = buffer.get(offset + 33);
+                    if ((flags & WRITTEN) == 0) {
+                        break;
+                    }
+                    handler.onRecord(first + (offset - HEADER_SIZE) / RECORD_SIZE, buffer.getLong(offset),
+                            buffer.getDouble(offset + 8), (flags & FIRST_ORDER) != 0,
+                            PaymentProcessor.METHODS[buffer.get(offset + 32)],
+                            buffer.getDouble(offset + 16), buffer.getDouble(offset + 24));
+                    records++;
+                }
+            }
+        }
+        return records;
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = map(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, recordsPerSegment);
+        segment.putLong(8, firstSequence);
+        segmentStart = firstSequence;
+        segmentCapacity = recordsPerSegment;
+        sequence = firstSequence;
+    }
+
+    private void reopen(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = map(channel, FileChannel.MapMode.READ_WRITE, channel.size());
+        segmentStart = checkHeader(segment, file);
+        segmentCapacity = segment.getInt(4);
+        int count = 0;
+        while (count < segmentCapacity && (segment.get(HEADER_SIZE + count * RECORD_SIZE + 33) & WRITTEN) != 0) {
+            count++;
+        }
+        sequence = segmentStart + count;
+    }
+
+    private static long checkHeader(MappedByteBuffer buffer, Path file) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC
+                || buffer.capacity() != HEADER_SIZE + (long) buffer.getInt(4) * RECORD_SIZE) {
+            throw new IOException("Not a payment journal segment: " + file);
+        }
+        return buffer.getLong(8);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    segments.add(file);
+                }
+            }
+        }
+        // names are zero-padded sequence numbers
+        Collections.sort(segments);
+        return segments;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example;
+
+/**
+ * Callback for every payment the {@link PaymentProcessor} prices successfully, registered with
+ * {@link PaymentProcessor#addPaymentListener}. It runs on the pricing thread, so implementations
+ * must be thread-safe, fast and must not allocate.
+ */
+public interface PaymentListener {
+
+    /**
+     * @param finalAmount the discounted amount plus tax
+     * @param taxAmount the tax included in {@code finalAmount}
+     * @param deliveryFee the delivery fee charged in the same call, or NaN when the call priced the
+     *                    payment alone and charged no fee, like {@code processPayment} does
+     */
+    void onPayment(double amount, boolean isFirstOrder, PaymentProcessor.PaymentMethod method, double finalAmount,
+                   double taxAmount, double deliveryFee);
+}
@@ -1,42 +1,547 @@
 package org.example;
 
+import java.util.Arrays;
+
 public class PaymentProcessor {
 
     public enum PaymentMethod {
         CREDIT_CARD, PAYPAL, CASH
     }
 
+    // cached once, PaymentMethod.values() clones the array on every call
+    static final PaymentMethod[] METHODS = PaymentMethod.values();
+
+    /** Row status written by the status-reporting batch methods. */
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_INVALID_AMOUNT = 1;
+    public static final byte STATUS_INVALID_METHOD = 2;
+
+    static final double FREE_DELIVERY_THRESHOLD = 50.0;
+    static final double DELIVERY_FEE = 5.0;
+
+    private volatile DiscountRules rules;
+    private volatile PricingLatencyRecorder latencyRecorder;
+    private volatile TaxTable taxTable;
+    private volatile DeliveryFeeEngine deliveryFeeEngine = DeliveryFeeEngine.DEFAULT;
+    private volatile FirstOrderTracker firstOrderTracker;
+    private volatile PromoCodes promoCodes;
+    private volatile PaymentListener[] listeners = new PaymentListener[0];
+
+    public PaymentProcessor() {
+        this(DiscountRules.DEFAULT);
+    }
+
+    public PaymentProcessor(DiscountRules rules) {
+        setRules(rules);
+    }
+
     public double processPayment(double amount, boolean isFirstOrder, PaymentMethod method) {
+        DiscountRules rules = this.rules;
+        return timedPrice(amount, isFirstOrder, method, rules.discountFactors[
+                DiscountRules.factorIndex(isFirstOrder, method.ordinal())], rules.getTaxRate());
+    }
+
+    /**
+     * Prices a request packed by {@link PackedPayment#pack}, the same as processPayment for
+     * {@code amountCents / 100.0}. Named apart from processPayment so a plain number such as
+     * {@code processPacked(100)} is never mistaken for an amount.
+     */
+    public double processPacked(long packed) {
+        return processPayment(PackedPayment.amountCents(packed) / 100.0, PackedPayment.isFirstOrder(packed),
+                PackedPayment.method(packed));
+    }
+
+    /**
+     * Prices a payment with the tax rate of the given postal code instead of the rules' rate, see
+     * {@link #taxRateFor}.
+     */
+    public double processPayment(double amount, boolean isFirstOrder, PaymentMethod method,
+                                 CharSequence postalCode) {
+        return timedPrice(amount, isFirstOrder, method, rules.discountFactors[
+                DiscountRules.factorIndex(isFirstOrder, method.ordinal())], taxRateFor(postalCode));
+    }
+
+    /**
+     * Prices a payment for a known customer. Whether it is the customer's first order is decided
+     * by the installed {@link FirstOrderTracker}, which records the order in the same step.
+     */
+    public double processPayment(double amount, int customerId, PaymentMethod method) {
+        FirstOrderTracker tracker = firstOrderTracker;
+        if (tracker == null) {
+            throw new IllegalStateException("No first order tracker installed");
+        }
         if (amount <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
+        return processPayment(amount, tracker.markOrdered(customerId), method);
+    }
+
+    /**
+     * Prices a payment with an optional promo code from the installed {@link PromoCodes}. A valid
+     * code adds its rate to the first-order and method discounts, capped at 100%, before tax; unknown or
+     * {@code null} codes price exactly like {@link #processPayment(double, boolean, PaymentMethod)}.
+     */
+    public double processPaymentWithPromo(double amount, boolean isFirstOrder, PaymentMethod method,
+                                          CharSequence promoCode) {
+        PromoCodes codes = promoCodes;
+        double promoDiscount = codes == null || promoCode == null ? 0.0 : codes.discountFor(promoCode);
+        if (promoDiscount == 0.0) {
+            return processPayment(amount, isFirstOrder, method);
+        }
 
-        double discount = 0.0;
+        DiscountRules rules = this.rules;
+        double discountFactor = rules.discountFactors[DiscountRules.factorIndex(isFirstOrder, method.ordinal())];
+        return timedPrice(amount, isFirstOrder, method, Math.max(0.0, discountFactor - promoDiscount),
+                rules.getTaxRate());
+    }
 
-        if (isFirstOrder) {
-            discount += 0.1; // 10% discount for first order
+    private double timedPrice(double amount, boolean isFirstOrder, PaymentMethod method, double discountFactor,
+                              double taxRate) {
+        PricingLatencyRecorder recorder = latencyRecorder;
+        double result;
+        if (recorder == null) {
+            result = price(amount, discountFactor, taxRate);
+        } else {
+            long start = System.nanoTime();
+            result = price(amount, discountFactor, taxRate);
+            recorder.recordPayment(isFirstOrder, method, System.nanoTime() - start);
         }
+        notifyListeners(amount, isFirstOrder, method, discountFactor, result, Double.NaN);
+        return result;
+    }
 
-        switch (method) {
-            case CREDIT_CARD:
-                discount += 0.05;
-                break;
-            case PAYPAL:
-                discount += 0.02;
-                break;
+    private void notifyListeners(double amount, boolean isFirstOrder, PaymentMethod method, double discountFactor,
+                                 double finalAmount, double deliveryFee) {
+        PaymentListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        double taxAmount = taxIncluded(amount, discountFactor, finalAmount);
+        for (PaymentListener listener : current) {
+            listener.onPayment(amount, isFirstOrder, method, finalAmount, taxAmount, deliveryFee);
         }
+    }
 
-        // BUG: the tax of 0.15 should be applied AFTER the discount! 
-        double taxedAmount = amount * (1 + 0.15);  // aplying a tax of 0.15       
+    // batch paths notify once per valid row, and only when someone listens; deliveryFees may be null
+    void notifyListeners(double[] discountFactors, double[] amounts, boolean[] isFirstOrder, byte[] methods,
+                         double[] results, double[] deliveryFees, int from, int to) {
+        PaymentListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (amounts[i] > 0 && isValidMethod(methods[i])) {
+                double discountFactor = discountFactors[DiscountRules.factorIndex(isFirstOrder[i], methods[i])];
+                double taxAmount = taxIncluded(amounts[i], discountFactor, results[i]);
+                double deliveryFee = deliveryFees == null ? Double.NaN : deliveryFees[i];
+                for (PaymentListener listener : current) {
+                    listener.onPayment(amounts[i], isFirstOrder[i], METHODS[methods[i]], results[i], taxAmount,
+                            deliveryFee);
+                }
+            }
+        }
+    }
 
-        double discountedAmount = amount * (1 - discount);
+    // the tax part of a final amount: its difference to the discounted amount in whole cents
+    private static double taxIncluded(double amount, double discountFactor, double finalAmount) {
+        return (Math.round(finalAmount * 100.0) - Math.round(amount * discountFactor * 100.0)) / 100.0;
+    }
+
+    /**
+     * Like {@link #processPayment(double, boolean, PaymentMethod)}, but returns {@link Double#NaN}
+     * instead of throwing when the amount is not positive, so rejected requests cost no
+     * exception or stack trace.
+     */
+    public double tryProcessPayment(double amount, boolean isFirstOrder, PaymentMethod method) {
+        if (amount <= 0) {
+            return Double.NaN;
+        }
+        return processPayment(amount, isFirstOrder, method);
+    }
 
-        double finalAmount = discountedAmount;
+    // prices without recording latency or notifying listeners, for quotes that are not payments
+    static double quote(DiscountRules rules, double amount, boolean isFirstOrder, PaymentMethod method) {
+        return price(amount, rules.discountFactors[DiscountRules.factorIndex(isFirstOrder, method.ordinal())],
+                rules.getTaxRate());
+    }
+
+    private static double price(double amount, double discountFactor, double taxRate) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        double discountedAmount = amount * discountFactor;
+
+        // tax is charged on the discounted amount
+        double finalAmount = discountedAmount * (1 + taxRate);
 
         return Math.round(finalAmount * 100.0) / 100.0;
     }
 
+    /**
+     * Prices a payment and its delivery fee in one pass and writes the cent breakdown into
+     * {@code out}, which is returned. The final amount and fee equal those of processPayment
+     * followed by calculateDeliveryFee; no objects are allocated. The whole pass is recorded as
+     * one payment by the latency recorder.
+     */
+    public CheckoutBreakdown checkout(double amount, boolean isFirstOrder, PaymentMethod method,
+                                      CheckoutBreakdown out) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        DiscountRules rules = this.rules;
+        double discountFactor = rules.discountFactors[DiscountRules.factorIndex(isFirstOrder, method.ordinal())];
+        PricingLatencyRecorder recorder = latencyRecorder;
+        if (recorder == null) {
+            breakdown(amount, discountFactor, rules.taxFactor, out);
+        } else {
+            long start = System.nanoTime();
+            breakdown(amount, discountFactor, rules.taxFactor, out);
+            recorder.recordPayment(isFirstOrder, method, System.nanoTime() - start);
+        }
+        notifyListeners(amount, isFirstOrder, method, discountFactor, out.getFinalAmountCents() / 100.0,
+                out.getDeliveryFeeCents() / 100.0);
+        return out;
+    }
+
+    // tax is the difference between the taxed and untaxed cents of the same product, so the parts add up
+    private static void breakdown(double amount, double discountFactor, double taxFactor, CheckoutBreakdown out) {
+        long discountedCents = Math.round(amount * discountFactor * 100.0);
+        long finalCents = Math.round(amount * discountFactor * taxFactor * 100.0);
+        long deliveryFeeCents = Math.round(deliveryFee(finalCents / 100.0) * 100.0);
+
+        out.subtotalCents = Math.round(amount * 100.0);
+        out.discountCents = out.subtotalCents - discountedCents;
+        out.taxCents = finalCents - discountedCents;
+        out.deliveryFeeCents = deliveryFeeCents;
+        out.totalCents = finalCents + deliveryFeeCents;
+    }
+
+    /**
+     * Prices the binary request the flyweight points at and writes the result, including the
+     * delivery fee, into {@code result}. Amounts match processPayment and calculateDeliveryFee for
+     * {@code amountCents / 100.0}; a known-customer request takes its first-order flag from the
+     * installed {@link FirstOrderTracker}. Invalid requests are reported in the status instead of
+     * throwing, and nothing is allocated.
+     *
+     * @return the status written to the result
+     */
+    public byte processPayment(PaymentRequestCodec request, PaymentResultCodec result) {
+        long amountCents = request.getAmountCents();
+        int methodOrdinal = request.getMethodOrdinal();
+        int customerId = request.getCustomerId();
+        byte status = amountCents <= 0 ? STATUS_INVALID_AMOUNT
+                : !isValidMethod(methodOrdinal) ? STATUS_INVALID_METHOD : STATUS_OK;
+        if (status != STATUS_OK) {
+            result.set(0, 0, customerId, status);
+            return status;
+        }
+
+        boolean isFirstOrder = request.isFirstOrder();
+        if (request.isKnownCustomer()) {
+            FirstOrderTracker tracker = firstOrderTracker;
+            if (tracker == null) {
+                throw new IllegalStateException("No first order tracker installed");
+            }
+            isFirstOrder = tracker.markOrdered(customerId);
+        }
+        double amount = amountCents / 100.0;
+        DiscountRules rules = this.rules;
+        double discountFactor = rules.discountFactors[DiscountRules.factorIndex(isFirstOrder, methodOrdinal)];
+        long finalCents = Math.round(amount * discountFactor * rules.taxFactor * 100.0);
+        long deliveryFeeCents = Math.round(deliveryFee(finalCents / 100.0) * 100.0);
+
+        result.set(finalCents, deliveryFeeCents, customerId, STATUS_OK);
+        notifyListeners(amount, isFirstOrder, METHODS[methodOrdinal], discountFactor, finalCents / 100.0,
+                deliveryFeeCents / 100.0);
+        return STATUS_OK;
+    }
+
+    /**
+     * Batch variant of {@link #processPayment(double, boolean, PaymentMethod)} over columnar input.
+     * Methods are given as {@link PaymentMethod#ordinal()} values. Results are written into
+     * {@code results} at the same index and are identical to the scalar method; nothing is
+     * allocated per element.
+     */
+    public void processPayments(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results) {
+        processPayments(amounts, isFirstOrder, methods, results, 0, amounts.length);
+    }
+
+    /**
+     * Prices the rows {@code [from, to)} of the given columns, see
+     * {@link #processPayments(double[], boolean[], byte[], double[])}.
+     */
+    public void processPayments(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results,
+                                int from, int to) {
+        checkRange(amounts, isFirstOrder, methods, results, from, to);
+
+        DiscountRules rules = this.rules;
+        priceRows(rules, amounts, isFirstOrder, methods, results, from, to);
+        notifyListeners(rules.discountFactors, amounts, isFirstOrder, methods, results, null, from, to);
+    }
+
+    // prices without notifying, for callers that notify once they know more about the rows
+    static void priceRows(DiscountRules rules, double[] amounts, boolean[] isFirstOrder, byte[] methods,
+                          double[] results, int from, int to) {
+        double[] factors = rules.discountFactors;
+        double taxFactor = rules.taxFactor;
+        for (int i = from; i < to; i++) {
+            double amount = amounts[i];
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            double discountFactor = factors[DiscountRules.factorIndex(isFirstOrder[i], checkMethod(methods[i]))];
+            results[i] = Math.round(amount * discountFactor * taxFactor * 100.0) / 100.0;
+        }
+    }
+
+    /**
+     * Batch variant of {@link #processPacked(long)}: prices every packed request into
+     * {@code results} at the same index.
+     */
+    public void processPayments(long[] packed, double[] results) {
+        if (results.length < packed.length) {
+            throw new IndexOutOfBoundsException("Results shorter than the requests");
+        }
+        DiscountRules rules = this.rules;
+        double[] factors = rules.discountFactors;
+        for (int i = 0; i < packed.length; i++) {
+            long request = packed[i];
+            long amountCents = PackedPayment.amountCents(request);
+            if (amountCents == 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            int ordinal = PackedPayment.method(request).ordinal();
+            double discountFactor = factors[DiscountRules.factorIndex(PackedPayment.isFirstOrder(request), ordinal)];
+            results[i] = Math.round(amountCents / 100.0 * discountFactor * rules.taxFactor * 100.0) / 100.0;
+        }
+
+        if (listeners.length == 0) {
+            return;
+        }
+        for (int i = 0; i < packed.length; i++) {
+            long request = packed[i];
+            boolean isFirstOrder = PackedPayment.isFirstOrder(request);
+            PaymentMethod method = PackedPayment.method(request);
+            notifyListeners(PackedPayment.amountCents(request) / 100.0, isFirstOrder, method,
+                    factors[DiscountRules.factorIndex(isFirstOrder, method.ordinal())], results[i], Double.NaN);
+        }
+    }
+
+    /**
+     * Status-reporting variant of {@link #processPayments(double[], boolean[], byte[], double[])}:
+     * instead of throwing, rows with a non-positive amount get {@link #STATUS_INVALID_AMOUNT} and
+     * rows with an unknown method ordinal {@link #STATUS_INVALID_METHOD} in {@code statuses}, and
+     * {@link Double#NaN} in {@code results}; valid rows get {@link #STATUS_OK}.
+     *
+     * @return the number of invalid rows
+     */
+    public int processPayments(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results,
+                               byte[] statuses) {
+        return processPayments(amounts, isFirstOrder, methods, results, statuses, 0, amounts.length);
+    }
+
+    /**
+     * Prices the rows {@code [from, to)} of the given columns, see
+     * {@link #processPayments(double[], boolean[], byte[], double[], byte[])}.
+     */
+    public int processPayments(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results,
+                               byte[] statuses, int from, int to) {
+        if (to > statuses.length) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds");
+        }
+        checkRange(amounts, isFirstOrder, methods, results, from, to);
+
+        DiscountRules rules = this.rules;
+        int invalid = priceRows(rules, amounts, isFirstOrder, methods, results, statuses, from, to);
+        notifyListeners(rules.discountFactors, amounts, isFirstOrder, methods, results, null, from, to);
+        return invalid;
+    }
+
+    // status-reporting priceRows, also without notifying
+    static int priceRows(DiscountRules rules, double[] amounts, boolean[] isFirstOrder, byte[] methods,
+                         double[] results, byte[] statuses, int from, int to) {
+        double[] factors = rules.discountFactors;
+        double taxFactor = rules.taxFactor;
+        int invalid = 0;
+        for (int i = from; i < to; i++) {
+            double amount = amounts[i];
+            if (amount <= 0) {
+                results[i] = Double.NaN;
+                statuses[i] = STATUS_INVALID_AMOUNT;
+                invalid++;
+                continue;
+            }
+            if (!isValidMethod(methods[i])) {
+                results[i] = Double.NaN;
+                statuses[i] = STATUS_INVALID_METHOD;
+                invalid++;
+                continue;
+            }
+            double discountFactor = factors[DiscountRules.factorIndex(isFirstOrder[i], methods[i])];
+            results[i] = Math.round(amount * discountFactor * taxFactor * 100.0) / 100.0;
+            statuses[i] = STATUS_OK;
+        }
+        return invalid;
+    }
+
+    static boolean isValidMethod(int ordinal) {
+        return ordinal >= 0 && ordinal < METHODS.length;
+    }
+
+    // batch and wire inputs carry raw ordinals; an unchecked one would index another method's factor
+    static int checkMethod(int ordinal) {
+        if (!isValidMethod(ordinal)) {
+            throw new IllegalArgumentException("Invalid payment method ordinal: " + ordinal);
+        }
+        return ordinal;
+    }
+
+    private static void checkRange(double[] amounts, boolean[] isFirstOrder, byte[] methods, double[] results,
+                                   int from, int to) {
+        if (from < 0 || to < from || to > amounts.length || to > isFirstOrder.length
+                || to > methods.length || to > results.length) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds");
+        }
+    }
+
+    public DiscountRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Replaces the discount and tax rules; calls already in flight finish with the previous rules.
+     */
+    public synchronized void setRules(DiscountRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules must not be null");
+        }
+        this.rules = rules;
+    }
+
+    public double getFirstOrderDiscount() {
+        return rules.getFirstOrderDiscount();
+    }
+
+    public synchronized void setFirstOrderDiscount(double discount) {
+        setRules(rules.withFirstOrderDiscount(discount));
+    }
+
+    public double getMethodDiscount(PaymentMethod method) {
+        return rules.getMethodDiscount(method);
+    }
+
+    public synchronized void setMethodDiscount(PaymentMethod method, double discount) {
+        setRules(rules.withMethodDiscount(method, discount));
+    }
+
+    public TaxTable getTaxTable() {
+        return taxTable;
+    }
+
+    /**
+     * Installs a region tax table; replacing it is atomic for concurrent callers. {@code null}
+     * falls back to the tax rate of the rules.
+     */
+    public void setTaxTable(TaxTable taxTable) {
+        this.taxTable = taxTable;
+    }
+
+    /**
+     * Tax rate for a postal code from the installed {@link TaxTable}, or the rules' rate when no
+     * table is installed. It is applied to the discounted amount.
+     */
+    public double taxRateFor(CharSequence postalCode) {
+        TaxTable table = taxTable;
+        return table == null ? rules.getTaxRate() : table.rateFor(postalCode);
+    }
+
+    public FirstOrderTracker getFirstOrderTracker() {
+        return firstOrderTracker;
+    }
+
+    public void setFirstOrderTracker(FirstOrderTracker firstOrderTracker) {
+        this.firstOrderTracker = firstOrderTracker;
+    }
+
+    public PromoCodes getPromoCodes() {
+        return promoCodes;
+    }
+
+    public void setPromoCodes(PromoCodes promoCodes) {
+        this.promoCodes = promoCodes;
+    }
+
+    /**
+     * Registers a listener that is called after every successfully priced payment, from the
+     * scalar, batch and checkout paths.
+     */
+    public synchronized void addPaymentListener(PaymentListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        PaymentListener[] current = listeners;
+        PaymentListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removePaymentListener(PaymentListener listener) {
+        PaymentListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                PaymentListener[] updated = new PaymentListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    public PricingLatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * Records the latency of every scalar processPayment and calculateDeliveryFee call into
+     * the given recorder; {@code null} turns recording off.
+     */
+    public void setLatencyRecorder(PricingLatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
     public double calculateDeliveryFee(double amount) {
-        return amount < 50.0 ? 5.0 : 0.0;
+        PricingLatencyRecorder recorder = latencyRecorder;
+        if (recorder == null) {
+            return deliveryFee(amount);
+        }
+        long start = System.nanoTime();
+        double fee = deliveryFee(amount);
+        recorder.recordDeliveryFee(System.nanoTime() - start);
+        return fee;
+    }
+
+    /**
+     * Delivery fee from the installed {@link DeliveryFeeEngine} by amount tier and distance band.
+     */
+    public double calculateDeliveryFee(double amount, double distanceKm) {
+        return deliveryFeeEngine.fee(amount, distanceKm);
+    }
+
+    public DeliveryFeeEngine getDeliveryFeeEngine() {
+        return deliveryFeeEngine;
+    }
+
+    public void setDeliveryFeeEngine(DeliveryFeeEngine deliveryFeeEngine) {
+        if (deliveryFeeEngine == null) {
+            throw new IllegalArgumentException("Delivery fee engine must not be null");
+        }
+        this.deliveryFeeEngine = deliveryFeeEngine;
+    }
+
+    private static double deliveryFee(double amount) {
+        return amount < FREE_DELIVERY_THRESHOLD ? DELIVERY_FEE : 0.0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses and formats ASCII payment records directly on a {@link ByteBuffer}, without
+ * creating Strings or boxed values per record.
+ *
+ * <p>Input lines are {@code amount,firstOrder,method}, for example {@code 100.00,true,CREDIT_CARD}.
+ * The first-order flag is {@code true}/{@code false} or {@code 1}/{@code 0}; the method is a
+ * {@link PaymentProcessor.PaymentMethod} name or ordinal. Output lines are
+ * {@code finalAmount,deliveryFee,total} with two decimals, or {@code ERROR line N: reason} for a
+ * rejected record. Lines end with {@code \n} or {@code \r\n}.
+ *
+ * <p>Instances hold the fields of the last parsed record, including its line number and the
+ * reason it is malformed if it is, and are not thread-safe.
+ */
+final class PaymentRecordCodec {
+
+    static final String EXPECTED_3_FIELDS = "expected 3 fields";
+    static final String TOO_MANY_DIGITS = "amount has too many digits";
+    static final String TOO_MANY_FRACTIONAL_DIGITS = "amount has too many fractional digits";
+    static final String INVALID_AMOUNT = "invalid amount";
+    static final String INVALID_FLAG = "invalid first order flag";
+    static final String INVALID_METHOD = "invalid payment method";
+    static final String AMOUNT_NOT_POSITIVE = "amount must be positive";
+
+    private static final String ERROR_PREFIX = "ERROR line ";
+
+    /** Upper bound of bytes written by {@link #writeResult} or {@link #writeError}. */
+    static final int MAX_RESULT_BYTES = Math.max(3 * 22 + 3,
+            ERROR_PREFIX.length() + 19 + 2 + TOO_MANY_FRACTIONAL_DIGITS.length() + 1);
+
+    private static final byte[] TRUE = bytes("true");
+    private static final byte[] FALSE = bytes("false");
+    private static final byte[][] METHOD_NAMES = new byte[PaymentProcessor.METHODS.length][];
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+    // doubles hold every integer up to 2^53 exactly, so mantissa / 10^scale is correctly rounded
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        for (PaymentProcessor.PaymentMethod method : PaymentProcessor.METHODS) {
+            METHOD_NAMES[method.ordinal()] = bytes(method.name());
+        }
+    }
+
+    double amount;
+    boolean isFirstOrder;
+    int methodOrdinal;
+    /** 1-based line number of the last parsed record, counting empty lines. */
+    long line;
+    /** Why the last parsed record is malformed, or null if it is not. */
+    String error;
+
+    /**
+     * Parses the line starting at {@code start}. Returns the index just past its line terminator,
+     * or -1 if no terminator occurs before {@code limit} and {@code endOfInput} is false. Empty
+     * lines are skipped. A malformed line is consumed like any other and sets {@link #error}.
+     */
+    int parse(ByteBuffer buffer, int start, int limit, boolean endOfInput) {
+        int lineStart = start;
+        // lines are only counted once a record is returned, since -1 makes the caller rescan them
+        int lines = 0;
+        while (true) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && !endOfInput) {
+                return -1;
+            }
+            lines++;
+            int next = lineEnd < limit ? lineEnd + 1 : limit;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                line += lines;
+                parseLine(buffer, lineStart, lineEnd);
+                return next;
+            }
+            if (next == limit) {
+                return -1;
+            }
+            lineStart = next;
+        }
+    }
+
+    /**
+     * The error of the last parsed record as an exception message.
+     */
+    String errorMessage() {
+        return "Malformed payment record on line " + line + ": " + error;
+    }
+
+    private void parseLine(ByteBuffer buffer, int start, int end) {
+        error = null;
+        int firstComma = indexOf(buffer, start, end, (byte) ',');
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, firstComma + 1, end, (byte) ',');
+        if (secondComma < 0) {
+            error = EXPECTED_3_FIELDS;
+            return;
+        }
+        amount = parseAmount(buffer, start, firstComma);
+        if (error == null) {
+            isFirstOrder = parseFlag(buffer, firstComma + 1, secondComma);
+        }
+        if (error == null) {
+            methodOrdinal = parseMethod(buffer, secondComma + 1, end);
+        }
+    }
+
+    private double parseAmount(ByteBuffer buffer, int start, int end) {
+        long mantissa = 0;
+        int scale = -1;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return malformed(TOO_MANY_DIGITS);
+                }
+                if (scale >= 0 && ++scale == POWERS_OF_TEN.length) {
+                    return malformed(TOO_MANY_FRACTIONAL_DIGITS);
+                }
+            } else {
+                return malformed(INVALID_AMOUNT);
+            }
+        }
+        if (end == start || scale == 0) {
+            return malformed(INVALID_AMOUNT);
+        }
+        return scale < 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+    }
+
+    private boolean parseFlag(ByteBuffer buffer, int start, int end) {
+        if (end - start == 1) {
+            byte b = buffer.get(start);
+            if (b == '1' || b == '0') {
+                return b == '1';
+            }
+        } else if (matches(buffer, start, end, TRUE)) {
+            return true;
+        } else if (matches(buffer, start, end, FALSE)) {
+            return false;
+        }
+        error = INVALID_FLAG;
+        return false;
+    }
+
+    private int parseMethod(ByteBuffer buffer, int start, int end) {
+        if (end - start == 1) {
+            int ordinal = buffer.get(start) - '0';
+            if (ordinal >= 0 && ordinal < METHOD_NAMES.length) {
+                return ordinal;
+            }
+        }
+        for (int ordinal = 0; ordinal < METHOD_NAMES.length; ordinal++) {
+            if (matches(buffer, start, end, METHOD_NAMES[ordinal])) {
+                return ordinal;
+            }
+        }
+        error = INVALID_METHOD;
+        return 0;
+    }
+
+    /**
+     * Writes {@code finalAmount,deliveryFee,total\n} of a checkout breakdown at {@code position}
+     * and returns the index after it. Needs at most {@link #MAX_RESULT_BYTES} bytes.
+     */
+    static int writeResult(ByteBuffer buffer, int position, CheckoutBreakdown breakdown) {
+        position = writeCents(buffer, position, breakdown.getFinalAmountCents());
+        buffer.put(position++, (byte) ',');
+        position = writeCents(buffer, position, breakdown.getDeliveryFeeCents());
+        buffer.put(position++, (byte) ',');
+        position = writeCents(buffer, position, breakdown.getTotalCents());
+        buffer.put(position++, (byte) '\n');
+        return position;
+    }
+
+    /**
+     * Writes {@code ERROR line N: reason\n} at {@code position} and returns the index after it.
+     * {@code reason} is one of the ASCII reasons of this class; needs at most
+     * {@link #MAX_RESULT_BYTES} bytes.
+     */
+    static int writeError(ByteBuffer buffer, int position, long line, String reason) {
+        position = writeAscii(buffer, position, ERROR_PREFIX);
+        position = writeDigits(buffer, position, line);
+        buffer.put(position++, (byte) ':');
+        buffer.put(position++, (byte) ' ');
+        position = writeAscii(buffer, position, reason);
+        buffer.put(position++, (byte) '\n');
+        return position;
+    }
+
+    /**
+     * Writes a non-negative cent value as {@code dollars.cc} and returns the index after it.
+     */
+    static int writeCents(ByteBuffer buffer, int position, long cents) {
+        int fraction = (int) (cents % 100);
+        position = writeDigits(buffer, position, cents / 100);
+        buffer.put(position++, (byte) '.');
+        buffer.put(position++, (byte) ('0' + fraction / 10));
+        buffer.put(position++, (byte) ('0' + fraction % 10));
+        return position;
+    }
+
+    private static int writeDigits(ByteBuffer buffer, int position, long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+    private static int writeAscii(ByteBuffer buffer, int position, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put(position++, (byte) text.charAt(i));
+        }
+        return position;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, int end, byte[] token) {
+        if (end - start != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; i++) {
+            if (buffer.get(start + i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double malformed(String reason) {
+        error = reason;
+        return 0.0;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
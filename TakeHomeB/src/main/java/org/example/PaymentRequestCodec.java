@@ -0,0 +1,104 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Flyweight over a binary payment request of {@value #ENCODED_LENGTH} bytes in a
+ * {@link ByteBuffer}, little endian regardless of the buffer's byte order:
+ *
+ * <pre>
+ *  0  long  amount in cents
+ *  8  int   customer ID
+ * 12  byte  PaymentMethod ordinal
+ * 13  byte  flags: 1 = first order, 2 = known customer
+ * 14        reserved
+ * </pre>
+ *
+ * {@link #wrap} points the flyweight at a record, and the accessors read and write that record in
+ * place, so one instance can walk a whole buffer without creating objects. Price a wrapped request
+ * with {@link PaymentProcessor#processPayment(PaymentRequestCodec, PaymentResultCodec)}.
+ * Instances are not thread-safe.
+ */
+public final class PaymentRequestCodec {
+
+    public static final int ENCODED_LENGTH = 16;
+
+    static final byte FIRST_ORDER = 1;
+    static final byte KNOWN_CUSTOMER = 2;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    public PaymentRequestCodec wrap(ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset > buffer.capacity() - ENCODED_LENGTH) {
+            throw new IndexOutOfBoundsException("Request at " + offset + " exceeds the buffer");
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public long getAmountCents() {
+        return (long) LONG.get(buffer, offset);
+    }
+
+    public PaymentRequestCodec setAmountCents(long amountCents) {
+        LONG.set(buffer, offset, amountCents);
+        return this;
+    }
+
+    public int getCustomerId() {
+        return (int) INT.get(buffer, offset + 8);
+    }
+
+    public PaymentRequestCodec setCustomerId(int customerId) {
+        INT.set(buffer, offset + 8, customerId);
+        return this;
+    }
+
+    /** The raw method ordinal, which is not checked against {@link PaymentProcessor.PaymentMethod}. */
+    public int getMethodOrdinal() {
+        return buffer.get(offset + 12) & 0xFF;
+    }
+
+    public PaymentRequestCodec setMethod(PaymentProcessor.PaymentMethod method) {
+        buffer.put(offset + 12, (byte) method.ordinal());
+        return this;
+    }
+
+    public boolean isFirstOrder() {
+        return (buffer.get(offset + 13) & FIRST_ORDER) != 0;
+    }
+
+    public PaymentRequestCodec setFirstOrder(boolean firstOrder) {
+        return setFlag(FIRST_ORDER, firstOrder);
+    }
+
+    /**
+     * Whether the first-order flag should be ignored and decided from the customer ID by the
+     * processor's {@link FirstOrderTracker}.
+     */
+    public boolean isKnownCustomer() {
+        return (buffer.get(offset + 13) & KNOWN_CUSTOMER) != 0;
+    }
+
+    public PaymentRequestCodec setKnownCustomer(boolean knownCustomer) {
+        return setFlag(KNOWN_CUSTOMER, knownCustomer);
+    }
+
+    private PaymentRequestCodec setFlag(byte flag, boolean value) {
+        byte flags = buffer.get(offset + 13);
+        buffer.put(offset + 13, (byte) (value ? flags | flag : flags & ~flag));
+        return this;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Flyweight over a binary payment result of {@value #ENCODED_LENGTH} bytes, the counterpart of
+ * {@link PaymentRequestCodec}, little endian:
+ *
+ * <pre>
+ *  0  long  final amount in cents
+ *  8  long  delivery fee in cents
+ * 16  int   customer ID, copied from the request
+ * 20  byte  status, one of the PaymentProcessor STATUS_ constants
+ * 21        reserved
+ * </pre>
+ *
+ * Amounts are 0 unless the status is {@link PaymentProcessor#STATUS_OK}. Instances are not
+ * thread-safe.
+ */
+public final class PaymentResultCodec {
+
+    public static final int ENCODED_LENGTH = 24;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    public PaymentResultCodec wrap(ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset > buffer.capacity() - ENCODED_LENGTH) {
+            throw new IndexOutOfBoundsException("Result at " + offset + " exceeds the buffer");
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public long getFinalAmountCents() {
+        return (long) LONG.get(buffer, offset);
+    }
+
+    public long getDeliveryFeeCents() {
+        return (long) LONG.get(buffer, offset + 8);
+    }
+
+    public int getCustomerId() {
+        return (int) INT.get(buffer, offset + 16);
+    }
+
+    public byte getStatus() {
+        return buffer.get(offset + 20);
+    }
+
+    /**
+     * Writes a whole result, including the reserved bytes.
+     */
+    public PaymentResultCodec set(long finalAmountCents, long deliveryFeeCents, int customerId, byte status) {
+        LONG.set(buffer, offset, finalAmountCents);
+        LONG.set(buffer, offset + 8, deliveryFeeCents);
+        INT.set(buffer, offset + 16, customerId);
+        INT.set(buffer, offset + 20, status & 0xFF);
+        return this;
+    }
+}
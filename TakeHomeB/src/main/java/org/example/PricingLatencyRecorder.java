@@ -0,0 +1,66 @@
+package org.example;
+
+/**
+ * Latency histograms for the pricing path of {@link PaymentProcessor}: one per
+ * ({@code isFirstOrder}, {@link PaymentProcessor.PaymentMethod}) pair for processPayment and
+ * one for calculateDeliveryFee. Attach it with {@link PaymentProcessor#setLatencyRecorder}.
+ */
+public class PricingLatencyRecorder {
+
+    private final LatencyHistogram[] paymentHistograms = new LatencyHistogram[2 * PaymentProcessor.METHODS.length];
+    private final LatencyHistogram deliveryFeeHistogram = new LatencyHistogram();
+
+    public PricingLatencyRecorder() {
+        for (int i = 0; i < paymentHistograms.length; i++) {
+            paymentHistograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void recordPayment(boolean isFirstOrder, PaymentProcessor.PaymentMethod method, long nanos) {
+        paymentHistograms[DiscountRules.factorIndex(isFirstOrder, method.ordinal())].record(nanos);
+    }
+
+    void recordDeliveryFee(long nanos) {
+        deliveryFeeHistogram.record(nanos);
+    }
+
+    public LatencyHistogram getPaymentHistogram(boolean isFirstOrder, PaymentProcessor.PaymentMethod method) {
+        return paymentHistograms[DiscountRules.factorIndex(isFirstOrder, method.ordinal())];
+    }
+
+    public LatencyHistogram getDeliveryFeeHistogram() {
+        return deliveryFeeHistogram;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : paymentHistograms) {
+            histogram.reset();
+        }
+        deliveryFeeHistogram.reset();
+    }
+
+    /**
+     * One line per histogram with count, p50, p99, p999 and max in nanoseconds.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (PaymentProcessor.PaymentMethod method : PaymentProcessor.METHODS) {
+            for (boolean isFirstOrder : new boolean[]{true, false}) {
+                appendLine(report, "processPayment " + method + " firstOrder=" + isFirstOrder,
+                        getPaymentHistogram(isFirstOrder, method));
+            }
+        }
+        appendLine(report, "calculateDeliveryFee", deliveryFeeHistogram);
+        return report.toString();
+    }
+
+    private static void appendLine(StringBuilder report, String name, LatencyHistogram histogram) {
+        report.append(name)
+                .append(" count=").append(histogram.getTotalCount())
+                .append(" p50=").append(histogram.getValueAtPercentile(50.0))
+                .append("ns p99=").append(histogram.getValueAtPercentile(99.0))
+                .append("ns p999=").append(histogram.getValueAtPercentile(99.9))
+                .append("ns max=").append(histogram.getMaxValue())
+                .append("ns\n");
+    }
+}
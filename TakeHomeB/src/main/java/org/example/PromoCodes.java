@@ -0,0 +1,223 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable table of promo codes and their extra discount rates.
+ *
+ * <p>A lookup first tests the code against a Bloom filter, so most invalid codes are rejected after
+ * hashing once and probing a few bits. Codes that pass are resolved through a minimal perfect
+ * hash (hash and displace): the code's bucket stores a displacement that sends it to its own slot
+ * in {@code [0, n)}, where the full 64-bit hash is compared to rule out Bloom false positives and
+ * the rate is read from a primitive array. No objects are created per lookup.
+ */
+public final class PromoCodes {
+
+    private static final int BLOOM_BITS_PER_CODE = 10;
+    private static final int BLOOM_HASHES = 7;
+    private static final int CODES_PER_BUCKET = 4;
+    private static final int MAX_DISPLACEMENT = 1 << 20;
+
+    private final long[] bloom;
+    private final long bloomBits;
+    private final int[] displacements;
+    private final long[] fingerprints;
+    private final double[] rates;
+
+    private PromoCodes(long[] bloom, int[] displacements, long[] fingerprints, double[] rates) {
+        this.bloom = bloom;
+        this.bloomBits = bloom.length * 64L;
+        this.displacements = displacements;
+        this.fingerprints = fingerprints;
+        this.rates = rates;
+    }
+
+    /**
+     * Builds the table; {@code rates[i]} is the discount granted by {@code codes[i]}.
+     */
+    public static PromoCodes build(CharSequence[] codes, double[] rates) {
+        if (codes.length != rates.length) {
+            throw new IllegalArgumentException("Expected one rate per code");
+        }
+        int n = codes.length;
+        long[] hashes = new long[n];
+        for (int i = 0; i < n; i++) {
+            if (!(rates[i] > 0.0 && rates[i] <= 1.0)) {
+                throw new IllegalArgumentException("Promo rate must be in (0, 1]: " + codes[i]);
+            }
+            hashes[i] = hash(codes[i]);
+        }
+        // codes with equal hashes share a bucket and could never be displaced apart
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < n; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                throw collision(codes, hashes, sorted[i]);
+            }
+        }
+
+        long[] bloom = new long[(int) Math.max(1, ((long) n * BLOOM_BITS_PER_CODE + 63) / 64)];
+        for (long hash : hashes) {
+            long bits = bloom.length * 64L;
+            for (int k = 0; k < BLOOM_HASHES; k++) {
+                long bit = bloomBit(hash, k, bits);
+                bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        int bucketCount = Math.max(1, n / CODES_PER_BUCKET);
+        List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int b = 0; b < bucketCount; b++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            buckets.get(bucketOf(hashes[i], bucketCount)).add(i);
+        }
+        Integer[] order = new Integer[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[b] = b;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer b) -> buckets.get(b).size()).reversed());
+
+        int[] displacements = new int[bucketCount];
+        long[] fingerprints = new long[n];
+        double[] slotRates = new double[n];
+        boolean[] taken = new boolean[n];
+        int[] slots = new int[CODES_PER_BUCKET * 8];
+        int nextFree = 0;
+
+        for (int b : order) {
+            List<Integer> bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            if (bucket.size() == 1) {
+                // single codes take any free slot, stored directly as -(slot + 1)
+                while (taken[nextFree]) {
+                    nextFree++;
+                }
+                place(bucket.get(0), nextFree, hashes, rates, fingerprints, slotRates, taken);
+                displacements[b] = -(nextFree + 1);
+                continue;
+            }
+            if (bucket.size() > slots.length) {
+                slots = new int[bucket.size()];
+            }
+            int displacement = 0;
+            while (!fits(bucket, displacement, hashes, taken, slots, n)) {
+                if (++displacement == MAX_DISPLACEMENT) {
+                    throw new IllegalStateException("No perfect hash slot found for a bucket of "
+                            + bucket.size() + " promo codes after " + MAX_DISPLACEMENT + " displacements");
+                }
+            }
+            for (int j = 0; j < bucket.size(); j++) {
+                place(bucket.get(j), slots[j], hashes, rates, fingerprints, slotRates, taken);
+            }
+            displacements[b] = displacement;
+        }
+        return new PromoCodes(bloom, displacements, fingerprints, slotRates);
+    }
+
+    public int size() {
+        return fingerprints.length;
+    }
+
+    public boolean contains(CharSequence code) {
+        return slotOf(hash(code)) >= 0;
+    }
+
+    /**
+     * The extra discount granted by the code, or 0 for unknown codes.
+     */
+    public double discountFor(CharSequence code) {
+        int slot = slotOf(hash(code));
+        return slot < 0 ? 0.0 : rates[slot];
+    }
+
+    private int slotOf(long hash) {
+        for (int k = 0; k < BLOOM_HASHES; k++) {
+            long bit = bloomBit(hash, k, bloomBits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return -1;
+            }
+        }
+        int displacement = displacements[bucketOf(hash, displacements.length)];
+        int slot = displacement < 0 ? -displacement - 1 : slotFor(hash, displacement, fingerprints.length);
+        return fingerprints[slot] == hash ? slot : -1;
+    }
+
+    private static IllegalArgumentException collision(CharSequence[] codes, long[] hashes, long hash) {
+        int first = -1;
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != hash) {
+                continue;
+            }
+            if (first < 0) {
+                first = i;
+            } else if (codes[first].toString().contentEquals(codes[i])) {
+                return new IllegalArgumentException("Duplicate promo code: " + codes[i]);
+            } else {
+                return new IllegalArgumentException("Promo codes " + codes[first] + " and " + codes[i]
+                        + " have the same hash");
+            }
+        }
+        throw new IllegalStateException("No promo code with hash " + hash);
+    }
+
+    private static boolean fits(List<Integer> bucket, int displacement, long[] hashes, boolean[] taken,
+                                int[] slots, int n) {
+        for (int j = 0; j < bucket.size(); j++) {
+            int slot = slotFor(hashes[bucket.get(j)], displacement, n);
+            if (taken[slot]) {
+                return false;
+            }
+            for (int k = 0; k < j; k++) {
+                if (slots[k] == slot) {
+                    return false;
+                }
+            }
+            slots[j] = slot;
+        }
+        return true;
+    }
+
+    private static void place(int code, int slot, long[] hashes, double[] rates, long[] fingerprints,
+                              double[] slotRates, boolean[] taken) {
+        taken[slot] = true;
+        fingerprints[slot] = hashes[code];
+        slotRates[slot] = rates[code];
+    }
+
+    private static int bucketOf(long hash, int bucketCount) {
+        return (int) Long.remainderUnsigned(hash, bucketCount);
+    }
+
+    private static int slotFor(long hash, int displacement, int n) {
+        return (int) Long.remainderUnsigned(mix(hash + displacement * 0x9E3779B97F4A7C15L), n);
+    }
+
+    private static long bloomBit(long hash, int k, long bits) {
+        long h2 = (hash >>> 32) | 1;
+        return Long.remainderUnsigned(hash + k * h2, bits);
+    }
+
+    // FNV-1a over the chars followed by a MurmurHash3 finalizer
+    static long hash(CharSequence code) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < code.length(); i++) {
+            hash = (hash ^ code.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
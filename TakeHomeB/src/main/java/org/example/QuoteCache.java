@@ -0,0 +1,222 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded memoizing quote layer pricing like {@link PaymentProcessor#processPayment}.
+ *
+ * <p>Quotes are keyed on (amount in cents, isFirstOrder, method) packed into one {@code long} and
+ * kept in a set-associative open-addressing table: every key hashes to a bucket of
+ * {@value #WAYS} slots, and a full bucket evicts with the CLOCK algorithm. Amounts that are not
+ * whole cents bypass the cache. The cache is cleared when the processor's rules change.
+ *
+ * <p>Quotes are not payments: hits and misses alike are priced without notifying the processor's
+ * listeners or latency recorder, so listener totals do not depend on the hit rate.
+ *
+ * <p>Lookups never lock: each bucket carries a sequence stamp that writers make odd while they
+ * update it, and a reader that sees the stamp move treats the lookup as a miss. Inserts lock only
+ * the stripe their bucket belongs to, one of up to {@value #MAX_STRIPES}, so inserts into different
+ * stripes run in parallel; {@link #clear} and the first insert after a rules change lock every
+ * stripe.
+ */
+public class QuoteCache {
+
+    static final int WAYS = 8;
+    static final int MAX_STRIPES = 64;
+
+    private static final long EMPTY = 0;
+    private static final long MAX_CENTS = 1L << 55;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final PaymentProcessor processor;
+    private final int bucketMask;
+    private final long[] keys;
+    private final long[] values;
+    private final long[] stamps;
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final ReentrantLock[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // written under every stripe lock after the clear it stands for, read by lock-free lookups
+    private volatile DiscountRules cachedRules;
+
+    public QuoteCache(PaymentProcessor processor, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS) * 2 - 1);
+        this.processor = processor;
+        this.bucketMask = buckets - 1;
+        this.keys = new long[buckets * WAYS];
+        this.values = new long[buckets * WAYS];
+        this.stamps = new long[buckets];
+        this.referenced = new byte[buckets * WAYS];
+        this.hands = new byte[buckets];
+        this.stripes = new ReentrantLock[Math.min(buckets, MAX_STRIPES)];
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            stripes[stripe] = new ReentrantLock();
+        }
+        this.cachedRules = processor.getRules();
+    }
+
+    public double processPayment(double amount, boolean isFirstOrder, PaymentProcessor.PaymentMethod method) {
+        DiscountRules rules = processor.getRules();
+        long cents = Math.round(amount * 100.0);
+        if (amount <= 0 || cents >= MAX_CENTS || cents / 100.0 != amount) {
+            misses.increment();
+            return PaymentProcessor.quote(rules, amount, isFirstOrder, method);
+        }
+
+        long key = (cents << 8) | (isFirstOrder ? 0x80 : 0) | method.ordinal();
+        int bucket = bucketOf(key);
+
+        if (rules == cachedRules) {
+            long stamp = (long) LONGS.getAcquire(stamps, bucket);
+            if ((stamp & 1) == 0) {
+                int base = bucket * WAYS;
+                for (int slot = base; slot < base + WAYS; slot++) {
+                    if ((long) LONGS.getOpaque(keys, slot) == key) {
+                        long bits = (long) LONGS.getOpaque(values, slot);
+                        VarHandle.acquireFence();
+                        if ((long) LONGS.getOpaque(stamps, bucket) == stamp) {
+                            referenced[slot] = 1;
+                            hits.increment();
+                            return Double.longBitsToDouble(bits);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        misses.increment();
+        double result = PaymentProcessor.quote(rules, amount, isFirstOrder, method);
+        put(rules, key, bucket, result);
+        return result;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void clear() {
+        lockAll();
+        try {
+            clearBuckets();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void clearBuckets() {
+        for (int bucket = 0; bucket < stamps.length; bucket++) {
+            beginWrite(bucket);
+            for (int slot = bucket * WAYS; slot < (bucket + 1) * WAYS; slot++) {
+                LONGS.setOpaque(keys, slot, EMPTY);
+                referenced[slot] = 0;
+            }
+            endWrite(bucket);
+        }
+    }
+
+    private void put(DiscountRules rules, long key, int bucket, double result) {
+        if (rules != cachedRules) {
+            switchRules(rules);
+        }
+        // buckets map to stripes by their low bits, so one lock guards every write to a bucket
+        ReentrantLock stripe = stripes[bucket & (stripes.length - 1)];
+        stripe.lock();
+        try {
+            if (rules == cachedRules && rules == processor.getRules()) {
+                insert(key, bucket, result);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private void switchRules(DiscountRules rules) {
+        lockAll();
+        try {
+            if (rules != cachedRules && rules == processor.getRules()) {
+                clearBuckets();
+                cachedRules = rules;
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int stripe = stripes.length - 1; stripe >= 0; stripe--) {
+            stripes[stripe].unlock();
+        }
+    }
+
+    private void insert(long key, int bucket, double result) {
+        int base = bucket * WAYS;
+        int victim = -1;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            long current = keys[slot];
+            if (current == key) {
+                return;
+            }
+            if (current == EMPTY && victim < 0) {
+                victim = slot;
+            }
+        }
+        if (victim < 0) {
+            victim = evict(bucket);
+        }
+
+        beginWrite(bucket);
+        LONGS.setOpaque(keys, victim, key);
+        LONGS.setOpaque(values, victim, Double.doubleToRawLongBits(result));
+        referenced[victim] = 0;
+        endWrite(bucket);
+    }
+
+    // CLOCK: skip and clear referenced slots until an unreferenced one comes round
+    private int evict(int bucket) {
+        int hand = hands[bucket];
+        int base = bucket * WAYS;
+        while (referenced[base + hand] != 0) {
+            referenced[base + hand] = 0;
+            hand = (hand + 1) % WAYS;
+        }
+        hands[bucket] = (byte) ((hand + 1) % WAYS);
+        return base + hand;
+    }
+
+    private void beginWrite(int bucket) {
+        LONGS.setOpaque(stamps, bucket, stamps[bucket] + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite(int bucket) {
+        LONGS.setRelease(stamps, bucket, stamps[bucket] + 1);
+    }
+
+    private int bucketOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & bucketMask;
+    }
+}
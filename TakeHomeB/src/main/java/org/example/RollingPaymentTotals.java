@@ -0,0 +1,193 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window totals of priced payments: volume, count and discount by
+ * {@link PaymentProcessor.PaymentMethod} and first-order flag, kept at second, minute and hour
+ * resolution in fixed rings of buckets. Register it with {@link PaymentProcessor#addPaymentListener}.
+ *
+ * <p>An update touches one bucket per ring, with no locks and no allocation. A bucket is reused
+ * when its window comes round again: the first writer of the new window marks it as being claimed
+ * with a CAS, clears it and only then publishes the new window number. Writers of the new window
+ * wait for that short clear, so none of their updates are lost; an update still in flight for the
+ * old window may be dropped or land in the new one. Readers never block writers, only sum buckets
+ * whose window is in range and discard a bucket that was reclaimed while they summed it.
+ */
+public class RollingPaymentTotals implements PaymentListener {
+
+    public enum Resolution {
+        SECOND(1_000L, 60),
+        MINUTE(60_000L, 60),
+        HOUR(3_600_000L, 24);
+
+        final long millis;
+        final int windows;
+
+        Resolution(long millis, int windows) {
+            this.millis = millis;
+            this.windows = windows;
+        }
+
+        public int getWindows() {
+            return windows;
+        }
+    }
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+    private static final int VOLUME = 0;
+    private static final int COUNT = 1;
+    private static final int DISCOUNT = 2;
+    private static final int METRICS = 3;
+    private static final int KEYS = 2 * PaymentProcessor.METHODS.length;
+    // slot 0 holds the window number, then METRICS counters per (isFirstOrder, method) key
+    private static final int STRIDE = 1 + KEYS * METRICS;
+    private static final long UNUSED = Long.MIN_VALUE;
+    private static final long CLAIMING = Long.MIN_VALUE + 1;
+
+    private final LongSupplier clock;
+    private final long[][] rings = new long[RESOLUTIONS.length][];
+
+    public RollingPaymentTotals() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds
+     */
+    public RollingPaymentTotals(LongSupplier clock) {
+        this.clock = clock;
+        for (Resolution resolution : RESOLUTIONS) {
+            long[] ring = new long[resolution.windows * STRIDE];
+            for (int bucket = 0; bucket < resolution.windows; bucket++) {
+                ring[bucket * STRIDE] = UNUSED;
+            }
+            rings[resolution.ordinal()] = ring;
+        }
+    }
+
+    @Override
+    public void onPayment(double amount, boolean isFirstOrder, PaymentProcessor.PaymentMethod method,
+                          double finalAmount, double taxAmount, double deliveryFee) {
+        long volumeCents = Math.round(amount * 100.0);
+        long discountCents = volumeCents - Math.round((finalAmount - taxAmount) * 100.0);
+        int key = DiscountRules.factorIndex(isFirstOrder, method.ordinal()) * METRICS;
+        long now = clock.getAsLong();
+
+        for (Resolution resolution : RESOLUTIONS) {
+            long[] ring = rings[resolution.ordinal()];
+            long window = now / resolution.millis;
+            int base = (int) (window % resolution.windows) * STRIDE;
+            if (!claim(ring, base, window)) {
+                continue;
+            }
+            LONGS.getAndAdd(ring, base + 1 + key + VOLUME, volumeCents);
+            LONGS.getAndAdd(ring, base + 1 + key + COUNT, 1L);
+            LONGS.getAndAdd(ring, base + 1 + key + DISCOUNT, discountCents);
+        }
+    }
+
+    public long getVolumeCents(Resolution resolution, int windows, PaymentProcessor.PaymentMethod method) {
+        return sum(resolution, windows, VOLUME, method.ordinal(), -1);
+    }
+
+    public long getCount(Resolution resolution, int windows, PaymentProcessor.PaymentMethod method) {
+        return sum(resolution, windows, COUNT, method.ordinal(), -1);
+    }
+
+    public long getDiscountCents(Resolution resolution, int windows, PaymentProcessor.PaymentMethod method) {
+        return sum(resolution, windows, DISCOUNT, method.ordinal(), -1);
+    }
+
+    /**
+     * Discount given as a share of volume over the last {@code windows} windows, 0 when idle.
+     */
+    public double getAverageDiscount(Resolution resolution, int windows, PaymentProcessor.PaymentMethod method) {
+        return ratio(sum(resolution, windows, DISCOUNT, method.ordinal(), -1),
+                sum(resolution, windows, VOLUME, method.ordinal(), -1));
+    }
+
+    public long getVolumeCents(Resolution resolution, int windows, boolean isFirstOrder) {
+        return sum(resolution, windows, VOLUME, -1, isFirstOrder ? 1 : 0);
+    }
+
+    public long getCount(Resolution resolution, int windows, boolean isFirstOrder) {
+        return sum(resolution, windows, COUNT, -1, isFirstOrder ? 1 : 0);
+    }
+
+    public long getDiscountCents(Resolution resolution, int windows, boolean isFirstOrder) {
+        return sum(resolution, windows, DISCOUNT, -1, isFirstOrder ? 1 : 0);
+    }
+
+    public double getAverageDiscount(Resolution resolution, int windows, boolean isFirstOrder) {
+        return ratio(sum(resolution, windows, DISCOUNT, -1, isFirstOrder ? 1 : 0),
+                sum(resolution, windows, VOLUME, -1, isFirstOrder ? 1 : 0));
+    }
+
+    // moves a bucket to the given window, clearing it before the window is published;
+    // false if the bucket already holds a newer one
+    private static boolean claim(long[] ring, int base, long window) {
+        while (true) {
+            long current = (long) LONGS.getAcquire(ring, base);
+            if (current == window) {
+                return true;
+            }
+            if (current == CLAIMING) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (current > window) {
+                return false;
+            }
+            if (LONGS.compareAndSet(ring, base, current, CLAIMING)) {
+                for (int i = base + 1; i < base + STRIDE; i++) {
+                    LONGS.setOpaque(ring, i, 0L);
+                }
+                LONGS.setRelease(ring, base, window);
+                return true;
+            }
+        }
+    }
+
+    private long sum(Resolution resolution, int windows, int metric, int methodOrdinal, int firstOrder) {
+        if (windows < 1 || windows > resolution.windows) {
+            throw new IllegalArgumentException("Windows must be between 1 and " + resolution.windows);
+        }
+        long[] ring = rings[resolution.ordinal()];
+        long newest = clock.getAsLong() / resolution.millis;
+        long total = 0;
+        for (int bucket = 0; bucket < resolution.windows; bucket++) {
+            int base = bucket * STRIDE;
+            long window = (long) LONGS.getAcquire(ring, base);
+            if (window == UNUSED || window == CLAIMING || window <= newest - windows || window > newest) {
+                continue;
+            }
+            long bucketTotal = 0;
+            for (int first = 0; first < 2; first++) {
+                if (firstOrder >= 0 && first != firstOrder) {
+                    continue;
+                }
+                for (int method = 0; method < PaymentProcessor.METHODS.length; method++) {
+                    if (methodOrdinal < 0 || method == methodOrdinal) {
+                        int key = DiscountRules.factorIndex(first == 1, method) * METRICS;
+                        bucketTotal += (long) LONGS.getOpaque(ring, base + 1 + key + metric);
+                    }
+                }
+            }
+            // a bucket claimed for a newer window meanwhile may have been cleared halfway
+            VarHandle.acquireFence();
+            if ((long) LONGS.getOpaque(ring, base) == window) {
+                total += bucketTotal;
+            }
+        }
+        return total;
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0.0 : (double) numerator / denominator;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Prices a stream of payment records, such as a shell pipeline on stdin, and writes one result
+ * line per record, priced with {@link PaymentProcessor#checkout} so listeners see the delivery
+ * fee. See {@link PaymentRecordCodec} for the record formats. A malformed record or
+ * one with a non-positive amount gets an {@code ERROR line N: reason} line in its place and the
+ * stream goes on.
+ *
+ * <p>Input and output go through one large direct buffer each; a partial record at the end of
+ * the input buffer is moved to its start before the next read. Pending results are written
+ * before every read, so a slow producer still sees results promptly. No objects are created per
+ * record.
+ */
+public class StreamingPaymentProcessor {
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final PaymentProcessor processor;
+    private final int bufferSize;
+
+    public StreamingPaymentProcessor(PaymentProcessor processor) {
+        this(processor, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingPaymentProcessor(PaymentProcessor processor, int bufferSize) {
+        if (bufferSize < 2 * PaymentRecordCodec.MAX_RESULT_BYTES) {
+            throw new IllegalArgumentException("Buffer size too small: " + bufferSize);
+        }
+        this.processor = processor;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Prices records from {@code in} until end of stream. Neither channel is closed.
+     *
+     * @return the number of records priced, not counting rejected ones
+     */
+    public long process(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        PaymentRecordCodec record = new PaymentRecordCodec();
+        CheckoutBreakdown breakdown = new CheckoutBreakdown();
+        ByteBuffer input = ByteBuffer.allocateDirect(bufferSize);
+        ByteBuffer output = ByteBuffer.allocateDirect(bufferSize);
+        int start = 0;
+        int limit = 0;
+        int outputPosition = 0;
+        boolean endOfInput = false;
+        long records = 0;
+
+        while (true) {
+            int next;
+            while ((next = record.parse(input, start, limit, endOfInput)) >= 0) {
+                start = next;
+                if (bufferSize - outputPosition < PaymentRecordCodec.MAX_RESULT_BYTES) {
+                    write(out, output, outputPosition);
+                    outputPosition = 0;
+                }
+                if (record.error != null) {
+                    outputPosition = PaymentRecordCodec.writeError(output, outputPosition, record.line, record.error);
+                    continue;
+                }
+                if (record.amount <= 0) {
+                    outputPosition = PaymentRecordCodec.writeError(output, outputPosition, record.line,
+                            PaymentRecordCodec.AMOUNT_NOT_POSITIVE);
+                    continue;
+                }
+                processor.checkout(record.amount, record.isFirstOrder, PaymentProcessor.METHODS[record.methodOrdinal],
+                        breakdown);
+                outputPosition = PaymentRecordCodec.writeResult(output, outputPosition, breakdown);
+                records++;
+            }
+            write(out, output, outputPosition);
+            outputPosition = 0;
+            if (endOfInput) {
+                return records;
+            }
+
+            if (start > 0) {
+                input.limit(limit).position(start);
+                input.compact();
+                limit -= start;
+                start = 0;
+            } else if (limit == bufferSize) {
+                throw new IOException("Payment record after line " + record.line + " exceeds the buffer size");
+            }
+            input.limit(bufferSize).position(limit);
+            int read = in.read(input);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+
+    private static void write(WritableByteChannel out, ByteBuffer output, int length) throws IOException {
+        output.limit(length).position(0);
+        while (output.hasRemaining()) {
+            out.write(output);
+        }
+        output.clear();
+    }
+}
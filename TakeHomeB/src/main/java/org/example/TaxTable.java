@@ -0,0 +1,167 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable tax-rate table keyed by postal code, stored off-heap as a sorted array of fixed-size
+ * entries and searched with a binary search. Tables are built with {@link Builder}, written with
+ * {@link #writeTo(Path)} and memory-mapped with {@link #open(Path)}, so millions of postal codes
+ * stay out of the Java heap. Lookups only read the buffer and are safe from any thread; publish a
+ * new table with {@link PaymentProcessor#setTaxTable} to swap rates atomically.
+ *
+ * <p>Postal codes are normalized to upper case without spaces or hyphens and may have at most
+ * {@value #MAX_POSTAL_CODE_LENGTH} characters. Codes not in the table use the default rate.
+ */
+public final class TaxTable {
+
+    public static final int MAX_POSTAL_CODE_LENGTH = 8;
+
+    // "TAX2": entries hold the rate as a double; the "TAXT" layout rounded it to basis points
+    private static final int MAGIC = 0x54415832;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final double defaultRate;
+
+    private TaxTable(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a tax table");
+        }
+        this.size = buffer.getInt(4);
+        if (size < 0 || buffer.capacity() < HEADER_SIZE + (long) size * ENTRY_SIZE) {
+            throw new IllegalArgumentException("Truncated tax table");
+        }
+        this.buffer = buffer;
+        this.defaultRate = Double.longBitsToDouble(buffer.getLong(8));
+    }
+
+    public static TaxTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new TaxTable(buffer);
+        }
+    }
+
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = buffer.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public double rateFor(CharSequence postalCode) {
+        return rateFor(key(postalCode));
+    }
+
+    /**
+     * Looks up a key produced by {@link #key(CharSequence)}.
+     */
+    public double rateFor(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long current = buffer.getLong(HEADER_SIZE + middle * ENTRY_SIZE);
+            if (current < key) {
+                low = middle + 1;
+            } else if (current > key) {
+                high = middle - 1;
+            } else {
+                return buffer.getDouble(HEADER_SIZE + middle * ENTRY_SIZE + 8);
+            }
+        }
+        return defaultRate;
+    }
+
+    /**
+     * Packs a normalized postal code into a {@code long}, first character in the high byte, so
+     * keys sort like their codes.
+     */
+    public static long key(CharSequence postalCode) {
+        long key = 0;
+        int length = 0;
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = postalCode.charAt(i);
+            if (c == ' ' || c == '-') {
+                continue;
+            }
+            if (c > 0x7E || c < 0x21) {
+                throw new IllegalArgumentException("Invalid postal code: " + postalCode);
+            }
+            if (++length > MAX_POSTAL_CODE_LENGTH) {
+                throw new IllegalArgumentException("Postal code too long: " + postalCode);
+            }
+            key = (key << 8) | Character.toUpperCase(c);
+        }
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty postal code");
+        }
+        return key << (8 * (MAX_POSTAL_CODE_LENGTH - length));
+    }
+
+    public static Builder builder(double defaultRate) {
+        return new Builder(defaultRate);
+    }
+
+    /**
+     * Collects rates on the heap and lays them out in a direct buffer on {@link #build()}.
+     * Rates are stored at full double precision, like the default rate.
+     */
+    public static final class Builder {
+        private final double defaultRate;
+        private final TreeMap<Long, Double> rates = new TreeMap<>();
+
+        private Builder(double defaultRate) {
+            this.defaultRate = checkRate(defaultRate);
+        }
+
+        public Builder add(CharSequence postalCode, double rate) {
+            rates.put(key(postalCode), checkRate(rate));
+            return this;
+        }
+
+        public TaxTable build() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + rates.size() * ENTRY_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, rates.size());
+            buffer.putLong(8, Double.doubleToLongBits(defaultRate));
+            int offset = HEADER_SIZE;
+            for (Map.Entry<Long, Double> entry : rates.entrySet()) {
+                buffer.putLong(offset, entry.getKey());
+                buffer.putDouble(offset + 8, entry.getValue());
+                offset += ENTRY_SIZE;
+            }
+            return new TaxTable(buffer);
+        }
+
+        private static double checkRate(double rate) {
+            if (!(rate >= 0.0 && rate <= 1.0)) {
+                throw new IllegalArgumentException("Tax rate must be between 0 and 1");
+            }
+            return rate;
+        }
+    }
+}
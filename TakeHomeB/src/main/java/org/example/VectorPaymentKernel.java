@@ -0,0 +1,76 @@
+package org.example;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel behind {@link VectorizedPaymentPricer}. Only loaded when the
+ * {@code jdk.incubator.vector} module is present.
+ */
+final class VectorPaymentKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // one byte per double lane; the mask keeps the load inside the current lanes
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final VectorMask<Byte> BYTE_LANES = BYTES.indexInRange(0, DOUBLES.length());
+    // above 2^52 every double is integral, so there is nothing left to round
+    private static final double ROUNDING_LIMIT = 0x1p52;
+
+    private VectorPaymentKernel() {
+    }
+
+    /**
+     * Prices {@code [from, to)} like the scalar path and returns the index where the vector loop
+     * stopped; the caller prices the remaining tail.
+     */
+    static int price(double[] discountFactors, double taxFactor, double[] amounts, boolean[] isFirstOrder,
+                     byte[] methods, double[] results, double[] deliveryFees, int from, int to) {
+        int lanes = DOUBLES.length();
+        int methodCount = PaymentProcessor.METHODS.length;
+        int upper = from + DOUBLES.loopBound(to - from);
+        DoubleVector zero = DoubleVector.zero(DOUBLES);
+
+        int i = from;
+        for (; i < upper; i += lanes) {
+            DoubleVector amount = DoubleVector.fromArray(DOUBLES, amounts, i);
+            if (amount.compare(VectorOperators.LE, 0.0).anyTrue()) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+
+            VectorMask<Double> firstOrder = VectorMask.fromArray(DOUBLES, isFirstOrder, i);
+            DoubleVector method = (DoubleVector) ByteVector.fromArray(BYTES, methods, i, BYTE_LANES)
+                    .convertShape(VectorOperators.B2D, DOUBLES, 0);
+
+            DoubleVector factor = zero;
+            VectorMask<Double> known = DOUBLES.maskAll(false);
+            for (int ordinal = 0; ordinal < methodCount; ordinal++) {
+                VectorMask<Double> isMethod = method.compare(VectorOperators.EQ, ordinal);
+                known = known.or(isMethod);
+                factor = factor
+                        .blend(discountFactors[DiscountRules.factorIndex(false, ordinal)], isMethod.andNot(firstOrder))
+                        .blend(discountFactors[DiscountRules.factorIndex(true, ordinal)], isMethod.and(firstOrder));
+            }
+            if (!known.allTrue()) {
+                throw new IllegalArgumentException("Invalid payment method ordinal");
+            }
+
+            // Math.round(x) for positive x: truncate, then add one when the fraction is at least a half
+            DoubleVector scaled = amount.mul(factor).mul(taxFactor).mul(100.0);
+            DoubleVector truncated = (DoubleVector) ((LongVector) scaled.convert(VectorOperators.D2L, 0))
+                    .convert(VectorOperators.L2D, 0);
+            VectorMask<Double> roundUp = scaled.sub(truncated).compare(VectorOperators.GE, 0.5)
+                    .and(scaled.compare(VectorOperators.LT, ROUNDING_LIMIT));
+            DoubleVector finalAmount = truncated.add(zero.blend(1.0, roundUp)).div(100.0);
+            finalAmount.intoArray(results, i);
+
+            zero.blend(PaymentProcessor.DELIVERY_FEE,
+                            finalAmount.compare(VectorOperators.LT, PaymentProcessor.FREE_DELIVERY_THRESHOLD))
+                    .intoArray(deliveryFees, i);
+        }
+        return i;
+    }
+}
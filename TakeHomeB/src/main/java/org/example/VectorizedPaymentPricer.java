@@ -0,0 +1,52 @@
+package org.example;
+
+/**
+ * Bulk pricing on the {@code jdk.incubator.vector} API. Discount and tax factors and cent rounding are
+ * applied across SIMD lanes and the delivery fee threshold is evaluated as a vector mask; results
+ * are identical to {@link PaymentProcessor#processPayment} and
+ * {@link PaymentProcessor#calculateDeliveryFee}.
+ *
+ * <p>The incubator module has to be enabled with {@code --add-modules jdk.incubator.vector};
+ * without it the pricer falls back to the scalar batch path.
+ */
+public class VectorizedPaymentPricer {
+
+    private static final boolean VECTOR_API_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private final PaymentProcessor processor;
+
+    public VectorizedPaymentPricer(PaymentProcessor processor) {
+        this.processor = processor;
+    }
+
+    public static boolean isVectorApiAvailable() {
+        return VECTOR_API_AVAILABLE;
+    }
+
+    /**
+     * Writes the final amount of every row into {@code results} and its delivery fee into
+     * {@code deliveryFees}. An invalid amount fails the call.
+     */
+    public void processPayments(double[] amounts, boolean[] isFirstOrder, byte[] methods,
+                                double[] results, double[] deliveryFees) {
+        int length = amounts.length;
+        if (isFirstOrder.length < length || methods.length < length || results.length < length
+                || deliveryFees.length < length) {
+            throw new IndexOutOfBoundsException("Columns shorter than " + length + " rows");
+        }
+
+        DiscountRules rules = processor.getRules();
+        int tail = 0;
+        if (VECTOR_API_AVAILABLE) {
+            tail = VectorPaymentKernel.price(rules.discountFactors, rules.taxFactor, amounts, isFirstOrder, methods,
+                    results, deliveryFees, 0, length);
+        }
+        PaymentProcessor.priceRows(rules, amounts, isFirstOrder, methods, results, tail, length);
+        for (int i = tail; i < length; i++) {
+            deliveryFees[i] = processor.calculateDeliveryFee(results[i]);
+        }
+        processor.notifyListeners(rules.discountFactors, amounts, isFirstOrder, methods, results, deliveryFees,
+                0, length);
+    }
+}
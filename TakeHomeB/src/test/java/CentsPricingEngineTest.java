@@ -0,0 +1,77 @@
+import org.example.CentsPricingEngine;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the fixed-point CentsPricingEngine
+ */
+public class CentsPricingEngineTest {
+
+    private CentsPricingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new CentsPricingEngine();
+    }
+
+    @Test
+    @DisplayName("Matches the double-based processor on cent amounts up to exact half cents")
+    void testMatchesDoubleProcessor() {
+        PaymentProcessor processor = new PaymentProcessor();
+        CentsPricingEngine halfDown = new CentsPricingEngine(RoundingMode.HALF_DOWN);
+        long[] amounts = {1, 100, 4600, 5500, 10000, 20000, 99999999};
+        for (long cents : amounts) {
+            for (PaymentProcessor.PaymentMethod method : PaymentProcessor.PaymentMethod.values()) {
+                for (boolean first : new boolean[]{true, false}) {
+                    long expected = CentsPricingEngine.toCents(processor.processPayment(cents / 100.0, first, method));
+                    // the double path may round an exact half cent either way, see testNoDrift
+                    assertTrue(expected == engine.processPayment(cents, first, method)
+                                    || expected == halfDown.processPayment(cents, first, method),
+                            cents + " " + first + " " + method);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Exact half cents round half up without double drift")
+    void testNoDrift() {
+        // 100 cents with a 10% discount and 15% tax is exactly 103.5 cents, the double path computes 103.4999...
+        assertEquals(104, engine.processPayment(100, true, PaymentProcessor.PaymentMethod.CASH));
+    }
+
+    @Test
+    @DisplayName("Rounding modes are applied to the final cent")
+    void testRoundingModes() {
+        assertEquals(104, new CentsPricingEngine(RoundingMode.HALF_EVEN)
+                .processPayment(100, true, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(103, new CentsPricingEngine(RoundingMode.HALF_DOWN)
+                .processPayment(100, true, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(103, new CentsPricingEngine(RoundingMode.DOWN)
+                .processPayment(100, true, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(104, new CentsPricingEngine(RoundingMode.CEILING)
+                .processPayment(100, true, PaymentProcessor.PaymentMethod.CASH));
+        assertThrows(ArithmeticException.class, () -> new CentsPricingEngine(RoundingMode.UNNECESSARY)
+                .processPayment(100, true, PaymentProcessor.PaymentMethod.CASH));
+    }
+
+    @Test
+    @DisplayName("Rejects non-positive amounts")
+    void testInvalidAmount() {
+        assertThrows(IllegalArgumentException.class, () ->
+                engine.processPayment(0, false, PaymentProcessor.PaymentMethod.CASH));
+    }
+
+    @Test
+    @DisplayName("Delivery fee threshold at 5000 cents")
+    void testDeliveryFee() {
+        assertEquals(500, engine.calculateDeliveryFee(4999));
+        assertEquals(0, engine.calculateDeliveryFee(5000));
+    }
+}
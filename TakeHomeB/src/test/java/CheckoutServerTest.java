@@ -0,0 +1,134 @@
+import org.example.CheckoutServer;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the loopback checkout endpoint
+ */
+public class CheckoutServerTest {
+
+    private CheckoutServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = CheckoutServer.start(new PaymentProcessor(), 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Checkout returns final amount, delivery fee and total")
+    void testCheckout() throws IOException {
+        HttpURLConnection connection = open("?amount=100.0&firstOrder=true&method=CREDIT_CARD");
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("{\"amount\":100.0,\"finalAmount\":97.75,\"deliveryFee\":0.00,\"total\":97.75}",
+                read(connection.getInputStream()));
+    }
+
+    @Test
+    @DisplayName("Totals are the sum of final amount and delivery fee to the cent")
+    void testTotalsInCents() throws IOException {
+        // 0.49 prices to 0.56, which double arithmetic adds to the 5.00 fee as 5.5600000000000005
+        for (int cents = 40; cents < 60; cents++) {
+            HttpURLConnection connection = open("?amount=" + cents / 100.0 + "&method=CASH");
+            String body = read(connection.getInputStream());
+
+            String[] parts = body.replaceAll(".*\"finalAmount\":([0-9.]+),\"deliveryFee\":([0-9.]+),"
+                    + "\"total\":([0-9.]+)}", "$1 $2 $3").split(" ");
+            for (String part : parts) {
+                assertTrue(part.matches("\\d+\\.\\d{2}"), body);
+            }
+            assertEquals(Math.round(Double.parseDouble(parts[0]) * 100) + Math.round(Double.parseDouble(parts[1]) * 100),
+                    Math.round(Double.parseDouble(parts[2]) * 100), body);
+        }
+    }
+
+    @Test
+    @DisplayName("Error messages echoing the request are escaped as JSON strings")
+    void testErrorEscaped() throws IOException {
+        HttpURLConnection connection = open("?amount=1&method=%5C%22%0A");
+
+        assertEquals(400, connection.getResponseCode());
+        assertEquals("{\"error\":\"No enum constant org.example.PaymentProcessor.PaymentMethod.\\\\\\\"\\u000a\"}",
+                read(connection.getErrorStream()));
+    }
+
+    @Test
+    @DisplayName("Invalid amounts are reported as bad requests")
+    void testInvalidAmount() throws IOException {
+        HttpURLConnection connection = open("?amount=0&method=CASH");
+
+        assertEquals(400, connection.getResponseCode());
+        assertTrue(read(connection.getErrorStream()).contains("Amount must be positive"));
+    }
+
+    @Test
+    @DisplayName("NaN and infinite amounts are reported as bad requests")
+    void testNonFiniteAmount() throws IOException {
+        for (String amount : new String[]{"NaN", "Infinity", "-Infinity"}) {
+            HttpURLConnection connection = open("?amount=" + amount + "&method=CASH");
+
+            assertEquals(400, connection.getResponseCode(), amount);
+            assertTrue(read(connection.getErrorStream()).contains("Amount must be a finite number"), amount);
+        }
+    }
+
+    @Test
+    @DisplayName("Requests blocked on the downstream call are served concurrently")
+    void testConcurrentDownstreamCalls() throws Exception {
+        server.close();
+        server = CheckoutServer.start(new PaymentProcessor(), 0, Duration.ofMillis(300));
+        int requests = 10;
+        ExecutorService clients = Executors.newFixedThreadPool(requests);
+        try {
+            long start = System.nanoTime();
+            List<Future<Integer>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                responses.add(clients.submit(() -> open("?amount=10&method=CASH").getResponseCode()));
+            }
+            for (Future<Integer> response : responses) {
+                assertEquals(200, response.get().intValue());
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMillis < requests * 300 / 2, "took " + elapsedMillis + " ms");
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private HttpURLConnection open(String query) throws IOException {
+        // the server binds the loopback address, which "localhost" may not resolve to
+        InetSocketAddress address = server.getAddress();
+        URL url = new URL("http", address.getAddress().getHostAddress(), address.getPort(),
+                CheckoutServer.CHECKOUT_PATH + query);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
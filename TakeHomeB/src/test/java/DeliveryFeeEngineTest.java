@@ -0,0 +1,75 @@
+import org.example.DeliveryFeeEngine;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the tiered, zone-aware delivery fee engine
+ */
+public class DeliveryFeeEngineTest {
+
+    @Test
+    @DisplayName("Default engine matches calculateDeliveryFee around the threshold")
+    void testDefaultMatchesProcessor() {
+        PaymentProcessor processor = new PaymentProcessor();
+        for (double amount : new double[]{0.01, 30.0, 49.99, 50.0, 50.01, 1000.0}) {
+            assertEquals(processor.calculateDeliveryFee(amount), DeliveryFeeEngine.DEFAULT.fee(amount));
+            assertEquals(processor.calculateDeliveryFee(amount), processor.calculateDeliveryFee(amount, 3.0));
+        }
+    }
+
+    @Test
+    @DisplayName("Amount tiers and distance bands select the fee")
+    void testTiersAndBands() {
+        DeliveryFeeEngine engine = new DeliveryFeeEngine(
+                new double[]{25.0, 50.0, 100.0},
+                new double[]{5.0, 20.0},
+                new double[]{
+                        7.0, 5.0, 2.0, 0.0,
+                        9.0, 7.0, 4.0, 0.0,
+                        15.0, 12.0, 8.0, 5.0});
+
+        assertEquals(4, engine.getTierCount());
+        assertEquals(3, engine.getBandCount());
+        assertEquals(7.0, engine.fee(10.0, 1.0));
+        assertEquals(5.0, engine.fee(25.0, 4.99));
+        assertEquals(4.0, engine.fee(99.99, 5.0));
+        assertEquals(0.0, engine.fee(100.0, 19.0));
+        assertEquals(5.0, engine.fee(250.0, 20.0));
+        assertEquals(15.0, engine.fee(1.0, 500.0));
+    }
+
+    @Test
+    @DisplayName("Lookup agrees with a linear scan over thousands of tiers")
+    void testManyTiers() {
+        int thresholds = 4_095;
+        double[] amounts = new double[thresholds];
+        double[] fees = new double[thresholds + 1];
+        for (int i = 0; i < thresholds; i++) {
+            amounts[i] = (i + 1) * 0.5;
+        }
+        for (int i = 0; i <= thresholds; i++) {
+            fees[i] = i;
+        }
+        DeliveryFeeEngine engine = new DeliveryFeeEngine(amounts, new double[0], fees);
+
+        for (double amount = 0.0; amount < 2_100.0; amount += 0.25) {
+            int expected = 0;
+            while (expected < thresholds && amounts[expected] <= amount) {
+                expected++;
+            }
+            assertEquals(expected, engine.fee(amount), "amount " + amount);
+        }
+    }
+
+    @Test
+    @DisplayName("Unsorted breaks and mismatched fees are rejected")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new DeliveryFeeEngine(new double[]{50.0, 25.0}, new double[0], new double[3]));
+        assertThrows(IllegalArgumentException.class, () ->
+                new DeliveryFeeEngine(new double[]{50.0}, new double[]{5.0}, new double[2]));
+    }
+}
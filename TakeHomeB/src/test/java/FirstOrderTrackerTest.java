@@ -0,0 +1,86 @@
+import org.example.FirstOrderTracker;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compressed first-order customer bitmap
+ */
+public class FirstOrderTrackerTest {
+
+    @Test
+    @DisplayName("Only the first order of a customer is reported as first")
+    void testMarkOrdered() {
+        FirstOrderTracker tracker = new FirstOrderTracker();
+
+        assertFalse(tracker.hasOrdered(42));
+        assertTrue(tracker.markOrdered(42));
+        assertFalse(tracker.markOrdered(42));
+        assertTrue(tracker.hasOrdered(42));
+        assertFalse(tracker.hasOrdered(43));
+        assertEquals(1, tracker.getCustomerCount());
+    }
+
+    @Test
+    @DisplayName("Dense containers switch to a bitmap and stay correct")
+    void testDenseContainer() {
+        FirstOrderTracker tracker = new FirstOrderTracker();
+        for (int id = 0; id < 70_000; id += 2) {
+            assertTrue(tracker.markOrdered(id));
+        }
+
+        for (int id = 0; id < 70_000; id++) {
+            assertEquals(id % 2 == 0, tracker.hasOrdered(id), "customer " + id);
+        }
+        assertEquals(35_000, tracker.getCustomerCount());
+        assertTrue(tracker.getSizeInBytes() <= 8192 + 2 * 4096);
+        assertTrue(tracker.markOrdered(Integer.MAX_VALUE));
+        assertTrue(tracker.hasOrdered(Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Concurrent orders of the same customers yield exactly one first order each")
+    void testConcurrentMarks() throws InterruptedException {
+        FirstOrderTracker tracker = new FirstOrderTracker();
+        AtomicInteger firsts = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int id = 0; id < 20_000; id++) {
+                    if (tracker.markOrdered(id * 7)) {
+                        firsts.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20_000, firsts.get());
+        assertEquals(20_000, tracker.getCustomerCount());
+    }
+
+    @Test
+    @DisplayName("Customer pricing applies the first order discount once")
+    void testProcessorOverload() {
+        PaymentProcessor processor = new PaymentProcessor();
+        assertThrows(IllegalStateException.class, () ->
+                processor.processPayment(100.0, 7, PaymentProcessor.PaymentMethod.CASH));
+
+        processor.setFirstOrderTracker(new FirstOrderTracker());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                processor.processPayment(0.0, 7, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(103.5, processor.processPayment(100.0, 7, PaymentProcessor.PaymentMethod.CASH), 0.001);
+        assertEquals(115.0, processor.processPayment(100.0, 7, PaymentProcessor.PaymentMethod.CASH), 0.001);
+    }
+}
@@ -0,0 +1,95 @@
+import org.example.CheckoutBreakdown;
+import org.example.LatencyHistogram;
+import org.example.PaymentProcessor;
+import org.example.PricingLatencyRecorder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the pricing latency histograms
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Percentiles are within 1% of the recorded values")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100_000, histogram.getTotalCount());
+        assertEquals(50_000, histogram.getValueAtPercentile(50.0), 500);
+        assertEquals(99_000, histogram.getValueAtPercentile(99.0), 990);
+        assertEquals(99_900, histogram.getValueAtPercentile(99.9), 999);
+        assertEquals(100_000, histogram.getMaxValue(), 1000);
+    }
+
+    @Test
+    @DisplayName("Concurrent recordings into the same bucket are all counted")
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(40);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400_000, histogram.getTotalCount());
+        assertEquals(40, histogram.getValueAtPercentile(99.9));
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Small values are exact and out of range values are clamped")
+    void testExactAndClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(0.0));
+        assertEquals(42, histogram.getValueAtPercentile(50.0));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMaxValue(), LatencyHistogram.MAX_VALUE / 100);
+    }
+
+    @Test
+    @DisplayName("Processor records one sample per call under the right key")
+    void testProcessorRecording() {
+        PaymentProcessor processor = new PaymentProcessor();
+        PricingLatencyRecorder recorder = new PricingLatencyRecorder();
+        processor.setLatencyRecorder(recorder);
+
+        processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.PAYPAL);
+        processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.PAYPAL);
+        processor.calculateDeliveryFee(20.0);
+
+        assertEquals(2, recorder.getPaymentHistogram(true, PaymentProcessor.PaymentMethod.PAYPAL).getTotalCount());
+        assertEquals(0, recorder.getPaymentHistogram(false, PaymentProcessor.PaymentMethod.PAYPAL).getTotalCount());
+        assertEquals(1, recorder.getDeliveryFeeHistogram().getTotalCount());
+        assertTrue(recorder.report().contains("processPayment PAYPAL firstOrder=true count=2"));
+    }
+
+    @Test
+    @DisplayName("Checkout is recorded as one payment sample")
+    void testCheckoutRecording() {
+        PaymentProcessor processor = new PaymentProcessor();
+        PricingLatencyRecorder recorder = new PricingLatencyRecorder();
+        processor.setLatencyRecorder(recorder);
+
+        processor.checkout(30.0, false, PaymentProcessor.PaymentMethod.CASH, new CheckoutBreakdown());
+
+        assertEquals(1, recorder.getPaymentHistogram(false, PaymentProcessor.PaymentMethod.CASH).getTotalCount());
+        assertEquals(0, recorder.getDeliveryFeeHistogram().getTotalCount());
+    }
+}
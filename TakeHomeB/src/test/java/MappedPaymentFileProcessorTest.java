@@ -0,0 +1,97 @@
+import org.example.DiscountRules;
+import org.example.MappedPaymentFileProcessor;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped payment file pipeline
+ */
+public class MappedPaymentFileProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Prices CSV records and writes final amount, delivery fee and total")
+    void testProcessFile() throws IOException {
+        Path input = tempDir.resolve("payments.csv");
+        Path output = tempDir.resolve("priced.csv");
+        Files.write(input, ("100.00,true,CREDIT_CARD\n"
+                + "30,false,CASH\r\n"
+                + "\n"
+                + "60.00,0,1").getBytes(StandardCharsets.US_ASCII));
+
+        long records = new MappedPaymentFileProcessor(new PaymentProcessor()).process(input, output);
+
+        assertEquals(3, records);
+        assertEquals("97.75,0.00,97.75\n34.50,5.00,39.50\n67.62,0.00,67.62\n",
+                new String(Files.readAllBytes(output), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Records crossing a window boundary are priced once")
+    void testSmallWindows() throws IOException {
+        Path input = tempDir.resolve("payments.csv");
+        Path output = tempDir.resolve("priced.csv");
+        StringBuilder lines = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            lines.append(i).append(".25,false,CASH\n");
+            expected.append(i).append(".25,").append(i < 50 ? "5.00," : "0.00,");
+            long total = i * 100L + 25 + (i < 50 ? 500 : 0);
+            expected.append(total / 100).append('.').append(String.format("%02d", total % 100)).append('\n');
+        }
+        Files.write(input, lines.toString().getBytes(StandardCharsets.US_ASCII));
+
+        // untaxed, so each total is the amount plus the delivery fee
+        long records = new MappedPaymentFileProcessor(
+                new PaymentProcessor(DiscountRules.DEFAULT.withTaxRate(0.0)), 256).process(input, output);
+
+        assertEquals(500, records);
+        assertEquals(expected.toString(), new String(Files.readAllBytes(output), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Malformed records are rejected")
+    void testMalformedRecord() throws IOException {
+        Path input = tempDir.resolve("payments.csv");
+        Files.write(input, "100.00,maybe,CASH\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                new MappedPaymentFileProcessor(new PaymentProcessor()).process(input, tempDir.resolve("out.csv")));
+    }
+
+    @Test
+    @DisplayName("Amounts with more fractional digits than a double can scale are rejected")
+    void testTooManyFractionalDigits() throws IOException {
+        Path input = tempDir.resolve("payments.csv");
+        Files.write(input, "0.0000000000000000001,true,CASH\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                new MappedPaymentFileProcessor(new PaymentProcessor()).process(input, tempDir.resolve("out.csv")));
+    }
+
+    @Test
+    @DisplayName("A failure mid-file leaves only the results written before it")
+    void testPartialOutputTruncated() throws IOException {
+        Path input = tempDir.resolve("payments.csv");
+        Path output = tempDir.resolve("priced.csv");
+        Files.write(input, "100.00,true,CREDIT_CARD\n30,false,CASH\n1,maybe,CASH\n"
+                .getBytes(StandardCharsets.US_ASCII));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                new MappedPaymentFileProcessor(new PaymentProcessor()).process(input, output));
+        assertEquals("Malformed payment record on line 3: invalid first order flag", e.getMessage());
+        assertEquals("97.75,0.00,97.75\n34.50,5.00,39.50\n",
+                new String(Files.readAllBytes(output), StandardCharsets.US_ASCII));
+    }
+}
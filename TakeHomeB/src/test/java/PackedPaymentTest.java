@@ -0,0 +1,62 @@
+import org.example.PackedPayment;
+import org.example.PaymentAggregates;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bit-packed payment request encoding
+ */
+public class PackedPaymentTest {
+
+    @Test
+    @DisplayName("Fields round-trip through the packed long")
+    void testRoundTrip() {
+        long packed = PackedPayment.pack(PackedPayment.MAX_AMOUNT_CENTS, true, PaymentProcessor.PaymentMethod.CASH);
+
+        assertEquals(PackedPayment.MAX_AMOUNT_CENTS, PackedPayment.amountCents(packed));
+        assertTrue(PackedPayment.isFirstOrder(packed));
+        assertEquals(PaymentProcessor.PaymentMethod.CASH, PackedPayment.method(packed));
+
+        packed = PackedPayment.pack(1, false, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+        assertEquals(1, PackedPayment.amountCents(packed));
+        assertFalse(PackedPayment.isFirstOrder(packed));
+        assertEquals(PaymentProcessor.PaymentMethod.CREDIT_CARD, PackedPayment.method(packed));
+    }
+
+    @Test
+    @DisplayName("Out of range amounts and method ordinals are rejected")
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () ->
+                PackedPayment.pack(-1, false, PaymentProcessor.PaymentMethod.CASH));
+        assertThrows(IllegalArgumentException.class, () ->
+                PackedPayment.pack(1L << 56, false, PaymentProcessor.PaymentMethod.CASH));
+        assertThrows(IllegalArgumentException.class, () -> PackedPayment.method(3L << 57));
+        assertThrows(IllegalArgumentException.class, () -> new PaymentProcessor().processPacked(0L));
+    }
+
+    @Test
+    @DisplayName("Packed requests price like the unpacked ones, one at a time or as a batch")
+    void testPricing() {
+        PaymentProcessor processor = new PaymentProcessor();
+        PaymentAggregates aggregates = new PaymentAggregates();
+        long[] packed = new long[300];
+        double[] expected = new double[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            long cents = i * 37L + 1;
+            PaymentProcessor.PaymentMethod method = PaymentProcessor.PaymentMethod.values()[i % 3];
+            packed[i] = PackedPayment.pack(cents, i % 4 == 0, method);
+            expected[i] = processor.processPayment(cents / 100.0, i % 4 == 0, method);
+            assertEquals(expected[i], processor.processPacked(packed[i]));
+        }
+
+        processor.addPaymentListener(aggregates);
+        double[] results = new double[packed.length];
+        processor.processPayments(packed, results);
+
+        assertArrayEquals(expected, results);
+        assertEquals(100, aggregates.getCount(PaymentProcessor.PaymentMethod.PAYPAL));
+    }
+}
@@ -0,0 +1,128 @@
+import org.example.DiscountRules;
+import org.example.ParallelPaymentPricer;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for fork/join batch pricing
+ */
+public class ParallelPaymentPricerTest {
+
+    @Test
+    @DisplayName("Parallel results equal the sequential batch in input order")
+    void testMatchesSequential() {
+        PaymentProcessor processor = new PaymentProcessor();
+        int n = 100_000;
+        Random random = new Random(42);
+        double[] amounts = new double[n];
+        boolean[] firstOrders = new boolean[n];
+        byte[] methods = new byte[n];
+        for (int i = 0; i < n; i++) {
+            amounts[i] = 0.01 + random.nextInt(100_000) / 100.0;
+            firstOrders[i] = random.nextBoolean();
+            methods[i] = (byte) random.nextInt(PaymentProcessor.PaymentMethod.values().length);
+        }
+
+        double[] expected = new double[n];
+        processor.processPayments(amounts, firstOrders, methods, expected);
+
+        double[] results = new double[n];
+        try (ParallelPaymentPricer pricer = new ParallelPaymentPricer(processor, 4, 1_000)) {
+            pricer.processPayments(amounts, firstOrders, methods, results);
+        }
+
+        assertArrayEquals(expected, results);
+    }
+
+    @Test
+    @DisplayName("Invalid amounts fail the whole batch")
+    void testInvalidAmount() {
+        double[] amounts = new double[5_000];
+        Arrays.fill(amounts, 10.0);
+        amounts[4_321] = -1.0;
+
+        PaymentProcessor processor = new PaymentProcessor();
+        List<Double> notified = new ArrayList<>();
+        processor.addPaymentListener((amount, isFirstOrder, method, finalAmount, taxAmount, deliveryFee) ->
+                notified.add(amount));
+
+        try (ParallelPaymentPricer pricer = new ParallelPaymentPricer(processor, 2, 100)) {
+            assertThrows(IllegalArgumentException.class, () ->
+                    pricer.processPayments(amounts, new boolean[5_000], new byte[5_000], new double[5_000]));
+        }
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Each batch is priced with one rule set while the rules change and notifies in row order")
+    void testRulesReadOncePerBatch() throws InterruptedException {
+        PaymentProcessor processor = new PaymentProcessor();
+        DiscountRules untaxed = DiscountRules.DEFAULT.withTaxRate(0.0);
+        int n = 20_000;
+        double[] amounts = new double[n];
+        for (int i = 0; i < n; i++) {
+            amounts[i] = 1 + i;
+        }
+        List<Double> notified = new ArrayList<>();
+        processor.addPaymentListener((amount, isFirstOrder, method, finalAmount, taxAmount, deliveryFee) ->
+                notified.add(amount));
+
+        double[] taxedResults = new double[n];
+        new PaymentProcessor(DiscountRules.DEFAULT).processPayments(amounts, new boolean[n], new byte[n], taxedResults);
+        double[] untaxedResults = new double[n];
+        new PaymentProcessor(untaxed).processPayments(amounts, new boolean[n], new byte[n], untaxedResults);
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread toggler = new Thread(() -> {
+            for (boolean taxed = false; !done.get(); taxed = !taxed) {
+                processor.setRules(taxed ? DiscountRules.DEFAULT : untaxed);
+            }
+        });
+        toggler.start();
+        try (ParallelPaymentPricer pricer = new ParallelPaymentPricer(processor, 4, 500)) {
+            for (int batch = 0; batch < 20; batch++) {
+                double[] results = new double[n];
+                pricer.processPayments(amounts, new boolean[n], new byte[n], results);
+                assertArrayEquals(results[0] == taxedResults[0] ? taxedResults : untaxedResults, results);
+            }
+        } finally {
+            done.set(true);
+            toggler.join();
+        }
+
+        assertEquals(20 * n, notified.size());
+        for (int i = 0; i < notified.size(); i++) {
+            assertEquals(amounts[i % n], notified.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Status mode reports invalid rows from every split")
+    void testStatuses() {
+        int n = 5_000;
+        double[] amounts = new double[n];
+        Arrays.fill(amounts, 10.0);
+        amounts[7] = 0.0;
+        amounts[4_321] = -1.0;
+        byte[] statuses = new byte[n];
+
+        int invalid;
+        try (ParallelPaymentPricer pricer = new ParallelPaymentPricer(new PaymentProcessor(), 2, 100)) {
+            invalid = pricer.processPayments(amounts, new boolean[n], new byte[n], new double[n], statuses);
+        }
+
+        assertEquals(2, invalid);
+        assertEquals(PaymentProcessor.STATUS_INVALID_AMOUNT, statuses[7]);
+        assertEquals(PaymentProcessor.STATUS_INVALID_AMOUNT, statuses[4_321]);
+        assertEquals(PaymentProcessor.STATUS_OK, statuses[8]);
+    }
+}
@@ -0,0 +1,81 @@
+import org.example.PaymentAggregates;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the live per-method aggregates
+ */
+public class PaymentAggregatesTest {
+
+    private PaymentProcessor processor;
+    private PaymentAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        processor = new PaymentProcessor();
+        aggregates = new PaymentAggregates();
+        processor.addPaymentListener(aggregates);
+    }
+
+    @Test
+    @DisplayName("Gross, discount and count accumulate per method")
+    void testTotals() {
+        processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.PAYPAL);
+        processor.processPayment(50.0, false, PaymentProcessor.PaymentMethod.PAYPAL);
+        processor.processPayment(20.0, false, PaymentProcessor.PaymentMethod.CASH);
+
+        assertEquals(15_000, aggregates.getGrossCents(PaymentProcessor.PaymentMethod.PAYPAL));
+        assertEquals(1_300, aggregates.getDiscountCents(PaymentProcessor.PaymentMethod.PAYPAL));
+        assertEquals(2, aggregates.getCount(PaymentProcessor.PaymentMethod.PAYPAL));
+        assertEquals(2_000, aggregates.getGrossCents(PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(0, aggregates.getCount(PaymentProcessor.PaymentMethod.CREDIT_CARD));
+    }
+
+    @Test
+    @DisplayName("Batch rows, rejected payments and removed listeners")
+    void testBatchAndRejected() {
+        double[] results = new double[3];
+        processor.processPayments(new double[]{10.0, 0.0, 30.0}, new boolean[3],
+                new byte[]{0, 0, 0}, results, new byte[3]);
+        assertThrows(IllegalArgumentException.class, () ->
+                processor.processPayment(-1.0, false, PaymentProcessor.PaymentMethod.CREDIT_CARD));
+
+        assertEquals(2, aggregates.getCount(PaymentProcessor.PaymentMethod.CREDIT_CARD));
+        assertEquals(200, aggregates.getDiscountCents(PaymentProcessor.PaymentMethod.CREDIT_CARD));
+
+        processor.removePaymentListener(aggregates);
+        processor.processPayment(10.0, false, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+        assertEquals(2, aggregates.getCount(PaymentProcessor.PaymentMethod.CREDIT_CARD));
+    }
+
+    @Test
+    @DisplayName("Concurrent updates are not lost")
+    void testConcurrentUpdates() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    processor.processPayment(10.0, false, PaymentProcessor.PaymentMethod.CASH);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, aggregates.getCount(PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(80_000_000, aggregates.getGrossCents(PaymentProcessor.PaymentMethod.CASH));
+
+        aggregates.reset();
+        assertEquals(0, aggregates.getCount(PaymentProcessor.PaymentMethod.CASH));
+    }
+}
@@ -0,0 +1,116 @@
+import org.example.FirstOrderTracker;
+import org.example.PaymentProcessor;
+import org.example.PaymentRequestCodec;
+import org.example.PaymentResultCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary request and result flyweights
+ */
+public class PaymentCodecTest {
+
+    private PaymentProcessor processor;
+    private PaymentRequestCodec request;
+    private PaymentResultCodec result;
+
+    @BeforeEach
+    void setUp() {
+        processor = new PaymentProcessor();
+        request = new PaymentRequestCodec();
+        result = new PaymentResultCodec();
+    }
+
+    @Test
+    @DisplayName("Fields round-trip in little endian whatever the buffer order")
+    void testRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(PaymentRequestCodec.ENCODED_LENGTH + 3).order(ByteOrder.BIG_ENDIAN);
+        request.wrap(buffer, 3)
+                .setAmountCents(123_456_789L)
+                .setCustomerId(-7)
+                .setMethod(PaymentProcessor.PaymentMethod.CASH)
+                .setFirstOrder(true)
+                .setKnownCustomer(true)
+                .setFirstOrder(false);
+
+        assertEquals(123_456_789L, request.getAmountCents());
+        assertEquals(-7, request.getCustomerId());
+        assertEquals(PaymentProcessor.PaymentMethod.CASH.ordinal(), request.getMethodOrdinal());
+        assertFalse(request.isFirstOrder());
+        assertTrue(request.isKnownCustomer());
+        assertEquals(123_456_789L, buffer.order(ByteOrder.LITTLE_ENDIAN).getLong(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> request.wrap(buffer, 4));
+    }
+
+    @Test
+    @DisplayName("Pricing off the buffer matches processPayment and calculateDeliveryFee")
+    void testMatchesProcessor() {
+        int count = 200;
+        ByteBuffer requests = ByteBuffer.allocateDirect(count * PaymentRequestCodec.ENCODED_LENGTH);
+        ByteBuffer results = ByteBuffer.allocateDirect(count * PaymentResultCodec.ENCODED_LENGTH);
+        for (int i = 0; i < count; i++) {
+            request.wrap(requests, i * PaymentRequestCodec.ENCODED_LENGTH)
+                    .setAmountCents(i * 53L + 1)
+                    .setCustomerId(i)
+                    .setMethod(PaymentProcessor.PaymentMethod.values()[i % 3])
+                    .setFirstOrder(i % 2 == 0);
+        }
+
+        for (int i = 0; i < count; i++) {
+            request.wrap(requests, i * PaymentRequestCodec.ENCODED_LENGTH);
+            result.wrap(results, i * PaymentResultCodec.ENCODED_LENGTH);
+            assertEquals(PaymentProcessor.STATUS_OK, processor.processPayment(request, result));
+
+            double amount = (i * 53L + 1) / 100.0;
+            double expected = processor.processPayment(amount, i % 2 == 0, PaymentProcessor.PaymentMethod.values()[i % 3]);
+            assertEquals(Math.round(expected * 100), result.getFinalAmountCents());
+            assertEquals(Math.round(processor.calculateDeliveryFee(expected) * 100), result.getDeliveryFeeCents());
+            assertEquals(i, result.getCustomerId());
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid requests get a status instead of an exception")
+    void testInvalidRequests() {
+        ByteBuffer requests = ByteBuffer.allocate(PaymentRequestCodec.ENCODED_LENGTH);
+        ByteBuffer results = ByteBuffer.allocate(PaymentResultCodec.ENCODED_LENGTH);
+        request.wrap(requests, 0).setAmountCents(0).setCustomerId(9);
+        result.wrap(results, 0);
+
+        assertEquals(PaymentProcessor.STATUS_INVALID_AMOUNT, processor.processPayment(request, result));
+        assertEquals(PaymentProcessor.STATUS_INVALID_AMOUNT, result.getStatus());
+        assertEquals(9, result.getCustomerId());
+
+        request.setAmountCents(100);
+        requests.put(12, (byte) 3);
+        assertEquals(PaymentProcessor.STATUS_INVALID_METHOD, processor.processPayment(request, result));
+        assertEquals(0, result.getFinalAmountCents());
+    }
+
+    @Test
+    @DisplayName("Known customers get their first order flag from the tracker")
+    void testKnownCustomer() {
+        ByteBuffer requests = ByteBuffer.allocate(PaymentRequestCodec.ENCODED_LENGTH);
+        ByteBuffer results = ByteBuffer.allocate(PaymentResultCodec.ENCODED_LENGTH);
+        request.wrap(requests, 0)
+                .setAmountCents(10_000)
+                .setCustomerId(42)
+                .setMethod(PaymentProcessor.PaymentMethod.CASH)
+                .setKnownCustomer(true);
+        result.wrap(results, 0);
+
+        assertThrows(IllegalStateException.class, () -> processor.processPayment(request, result));
+
+        processor.setFirstOrderTracker(new FirstOrderTracker());
+        processor.processPayment(request, result);
+        assertEquals(10_350, result.getFinalAmountCents());
+        processor.processPayment(request, result);
+        assertEquals(11_500, result.getFinalAmountCents());
+    }
+}
@@ -0,0 +1,88 @@
+import org.example.CheckoutBreakdown;
+import org.example.PaymentColumnStore;
+import org.example.PaymentColumnStore.Column;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the off-heap columnar payment store
+ */
+public class PaymentColumnStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private PaymentProcessor processor;
+    private PaymentColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        processor = new PaymentProcessor();
+        store = new PaymentColumnStore(16, now::get);
+        processor.addPaymentListener(store);
+    }
+
+    @Test
+    @DisplayName("Sums and counts are grouped by method over the time range")
+    void testAggregates() {
+        CheckoutBreakdown breakdown = new CheckoutBreakdown();
+        processor.checkout(100.0, true, PaymentProcessor.PaymentMethod.PAYPAL, breakdown);
+        now.set(2_000);
+        processor.checkout(40.0, false, PaymentProcessor.PaymentMethod.PAYPAL, breakdown);
+        processor.checkout(60.0, false, PaymentProcessor.PaymentMethod.CASH, breakdown);
+        now.set(3_000);
+        processor.checkout(10.0, false, PaymentProcessor.PaymentMethod.CREDIT_CARD, breakdown);
+
+        assertEquals(4, store.size());
+        assertArrayEquals(new long[]{1_000, 14_000, 6_000}, store.sumByMethod(Column.AMOUNT, 0, Long.MAX_VALUE));
+        assertArrayEquals(new long[]{0, 10_000, 0}, store.sumByMethod(Column.AMOUNT, 1_000, 2_000));
+        assertArrayEquals(new long[]{0, 80, 0}, store.sumByMethod(Column.DISCOUNT, 2_000, 3_000));
+        assertArrayEquals(new long[]{500, 500, 0}, store.sumByMethod(Column.DELIVERY_FEE, 0, Long.MAX_VALUE));
+        assertArrayEquals(new long[]{143, 1_908, 900}, store.sumByMethod(Column.TAX, 0, Long.MAX_VALUE));
+        assertArrayEquals(new long[]{1, 2, 1}, store.countByMethod(0, Long.MAX_VALUE));
+        assertArrayEquals(new long[]{0, 1, 0}, store.countByMethod(0, Long.MAX_VALUE, true));
+        assertArrayEquals(new long[]{0, 1_200, 0}, store.sumByMethod(Column.DISCOUNT, 0, Long.MAX_VALUE, true));
+    }
+
+    @Test
+    @DisplayName("Checkout breakdowns are stored as they are")
+    void testBreakdown() {
+        CheckoutBreakdown breakdown = processor.checkout(30.0, true, PaymentProcessor.PaymentMethod.CASH,
+                new CheckoutBreakdown());
+        PaymentColumnStore other = new PaymentColumnStore(1);
+        other.append(5, true, PaymentProcessor.PaymentMethod.CASH, breakdown);
+
+        assertArrayEquals(new long[]{0, 0, 500}, other.sumByMethod(Column.DELIVERY_FEE, 5, 6));
+        assertArrayEquals(new long[]{0, 0, 300}, other.sumByMethod(Column.DISCOUNT, 5, 6));
+        assertThrows(IllegalStateException.class, () ->
+                other.append(6, false, PaymentProcessor.PaymentMethod.CASH, breakdown));
+    }
+
+    @Test
+    @DisplayName("A full store drops and counts listener payments instead of failing the pricing call")
+    void testFullStoreDrops() {
+        for (int i = 0; i < store.capacity(); i++) {
+            processor.processPayment(10.0, false, PaymentProcessor.PaymentMethod.CASH);
+        }
+
+        assertEquals(11.5, processor.processPayment(10.0, false, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(97.75, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD));
+        assertEquals(16, store.size());
+        assertEquals(2, store.getDroppedCount());
+        assertArrayEquals(new long[]{0, 0, 16_000}, store.sumByMethod(Column.AMOUNT, 0, Long.MAX_VALUE));
+        // quotes charge no delivery fee
+        assertArrayEquals(new long[]{0, 0, 0}, store.sumByMethod(Column.DELIVERY_FEE, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Invalid capacities are rejected")
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new PaymentColumnStore(0));
+        assertThrows(IllegalArgumentException.class, () ->
+                new PaymentColumnStore(PaymentColumnStore.MAX_CAPACITY + 1));
+    }
+}
@@ -0,0 +1,121 @@
+import org.example.CheckoutBreakdown;
+import org.example.PaymentJournal;
+import org.example.PaymentProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped payment journal
+ */
+public class PaymentJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Checkouts are journaled with the delivery fee they charged and replayed in order")
+    void testJournalAndReplay() throws IOException {
+        PaymentProcessor processor = new PaymentProcessor();
+        try (PaymentJournal journal = new PaymentJournal(tempDir, processor,
+                PaymentJournal.FsyncPolicy.EVERY_RECORD, 16, () -> 42L)) {
+            processor.addPaymentListener(journal);
+            CheckoutBreakdown breakdown = new CheckoutBreakdown();
+            processor.checkout(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD, breakdown);
+            processor.checkout(30.0, false, PaymentProcessor.PaymentMethod.CASH, breakdown);
+            processor.processPayment(30.0, false, PaymentProcessor.PaymentMethod.CASH);
+            assertEquals(3, journal.size());
+        }
+
+        List<String> records = new ArrayList<>();
+        long count = PaymentJournal.replay(tempDir, (sequence, timestamp, amount, first, method, finalAmount, fee) ->
+                records.add(sequence + " " + timestamp + " " + amount + " " + first + " " + method + " "
+                        + finalAmount + " " + fee));
+
+        assertEquals(3, count);
+        assertEquals("0 42 100.0 true CREDIT_CARD 97.75 0.0", records.get(0));
+        assertEquals("1 42 30.0 false CASH 34.5 5.0", records.get(1));
+        assertEquals("2 42 30.0 false CASH 34.5 0.0", records.get(2));
+    }
+
+    @Test
+    @DisplayName("Full segments roll over and a reopened journal continues after the last record")
+    void testRollingAndReopen() throws IOException {
+        PaymentProcessor processor = new PaymentProcessor();
+        try (PaymentJournal journal = new PaymentJournal(tempDir, processor,
+                PaymentJournal.FsyncPolicy.NONE, 4, () -> 0L)) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, journal.append(i, i, false, PaymentProcessor.PaymentMethod.PAYPAL, i, 0.0));
+            }
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(3, files.count());
+        }
+
+        try (PaymentJournal journal = new PaymentJournal(tempDir, processor,
+                PaymentJournal.FsyncPolicy.EVERY_SEGMENT, 8, () -> 0L)) {
+            assertEquals(10, journal.size());
+            for (int i = 10; i < 15; i++) {
+                assertEquals(i, journal.append(i, i, true, PaymentProcessor.PaymentMethod.CASH, i, 0.0));
+            }
+        }
+
+        long[] next = {0};
+        long count = PaymentJournal.replay(tempDir, (sequence, timestamp, amount, first, method, finalAmount, fee) -> {
+            assertEquals(next[0]++, sequence);
+            assertEquals(sequence, timestamp);
+            assertEquals(sequence >= 10, first);
+        });
+        assertEquals(15, count);
+    }
+
+    @Test
+    @DisplayName("Closed journals reject appends")
+    void testClosed() throws IOException {
+        PaymentJournal journal = new PaymentJournal(tempDir, new PaymentProcessor());
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () ->
+                journal.append(0, 1.0, false, PaymentProcessor.PaymentMethod.CASH, 1.0, 5.0));
+    }
+
+    @Test
+    @DisplayName("Closing unregisters the journal and late payments are ignored")
+    void testPaymentsAfterClose() throws IOException {
+        PaymentProcessor processor = new PaymentProcessor();
+        PaymentJournal journal = new PaymentJournal(tempDir, processor);
+        processor.addPaymentListener(journal);
+        journal.close();
+
+        assertEquals(97.75, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD));
+        assertDoesNotThrow(() -> journal.onPayment(1.0, false, PaymentProcessor.PaymentMethod.CASH, 1.15, 0.15, 5.0));
+        assertEquals(0, journal.size());
+        assertEquals(0, journal.getFailedAppends());
+    }
+
+    @Test
+    @DisplayName("I/O failures of listener appends are recorded instead of thrown")
+    void testFailedAppendRecorded() throws IOException {
+        PaymentProcessor processor = new PaymentProcessor();
+        try (PaymentJournal journal = new PaymentJournal(tempDir, processor,
+                PaymentJournal.FsyncPolicy.NONE, 1, () -> 0L)) {
+            processor.addPaymentListener(journal);
+            processor.processPayment(10.0, false, PaymentProcessor.PaymentMethod.CASH);
+            // the next segment's file already exists, so rolling over fails
+            Files.createFile(tempDir.resolve(String.format("%020d.journal", 1)));
+
+            assertDoesNotThrow(() -> processor.processPayment(20.0, false, PaymentProcessor.PaymentMethod.CASH));
+            assertEquals(1, journal.getFailedAppends());
+            assertNotNull(journal.getLastFailure());
+        }
+    }
+}
@@ -1,9 +1,14 @@
 
+import org.example.CheckoutBreakdown;
+import org.example.DiscountRules;
 import org.example.PaymentProcessor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+
+import java.util.Properties;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -378,4 +383,257 @@ public class PaymentProcessorTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch API Tests")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Batch results match the scalar method for every method and first-order flag")
+        void testBatchMatchesScalar() {
+            double[] amounts = {0.01, 0.10, 33.333, 46.0, 55.0, 100.0, 200.0, 999999.99};
+            int n = amounts.length * 6;
+            double[] columnAmounts = new double[n];
+            boolean[] firstOrders = new boolean[n];
+            byte[] methods = new byte[n];
+            int row = 0;
+            for (double amount : amounts) {
+                for (int first = 0; first < 2; first++) {
+                    for (PaymentProcessor.PaymentMethod method : PaymentProcessor.PaymentMethod.values()) {
+                        columnAmounts[row] = amount;
+                        firstOrders[row] = first == 1;
+                        methods[row] = (byte) method.ordinal();
+                        row++;
+                    }
+                }
+            }
+
+            double[] results = new double[n];
+            processor.processPayments(columnAmounts, firstOrders, methods, results);
+
+            for (int i = 0; i < n; i++) {
+                double expected = processor.processPayment(columnAmounts[i], firstOrders[i],
+                        PaymentProcessor.PaymentMethod.values()[methods[i]]);
+                assertEquals(expected, results[i], "Row " + i + " should match the scalar result");
+            }
+        }
+
+        @Test
+        @DisplayName("Batch range only writes the requested rows")
+        void testBatchRange() {
+            double[] amounts = {100.0, 100.0, 100.0};
+            boolean[] firstOrders = {false, false, false};
+            byte[] methods = {2, 2, 2};
+            double[] results = new double[3];
+
+            processor.processPayments(amounts, firstOrders, methods, results, 1, 2);
+
+            assertArrayEquals(new double[]{0.0, 115.0, 0.0}, results);
+        }
+
+        @Test
+        @DisplayName("Batch rejects non-positive amounts like the scalar method")
+        void testBatchInvalidAmount() {
+            double[] results = new double[2];
+            assertThrows(IllegalArgumentException.class, () ->
+                    processor.processPayments(new double[]{10.0, 0.0}, new boolean[2], new byte[2], results));
+        }
+
+        @Test
+        @DisplayName("Batch rejects unknown method ordinals instead of pricing another method")
+        void testBatchInvalidMethod() {
+            double[] results = new double[1];
+            assertThrows(IllegalArgumentException.class, () ->
+                    processor.processPayments(new double[]{100.0}, new boolean[]{false}, new byte[]{3}, results));
+            assertThrows(IllegalArgumentException.class, () ->
+                    processor.processPayments(new double[]{100.0}, new boolean[]{true}, new byte[]{-1}, results));
+        }
+    }
+
+    @Nested
+    @DisplayName("Discount Table Tests")
+    class DiscountTableTests {
+
+        @Test
+        @DisplayName("Changing the first order discount reprices first orders only")
+        void testFirstOrderDiscountChange() {
+            processor.setFirstOrderDiscount(0.2);
+
+            assertEquals(0.2, processor.getFirstOrderDiscount());
+            assertEquals(86.25, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD), 0.001);
+            assertEquals(109.25, processor.processPayment(100.0, false, PaymentProcessor.PaymentMethod.CREDIT_CARD), 0.001);
+        }
+
+        @Test
+        @DisplayName("Changing a method discount is picked up by the batch path")
+        void testMethodDiscountChange() {
+            processor.setMethodDiscount(PaymentProcessor.PaymentMethod.CASH, 0.03);
+
+            double[] results = new double[1];
+            processor.processPayments(new double[]{100.0}, new boolean[]{false},
+                    new byte[]{(byte) PaymentProcessor.PaymentMethod.CASH.ordinal()}, results);
+
+            assertEquals(111.55, results[0], 0.001);
+        }
+
+        @Test
+        @DisplayName("Rates outside [0, 1] are rejected")
+        void testInvalidRate() {
+            assertThrows(IllegalArgumentException.class, () -> processor.setFirstOrderDiscount(1.5));
+            assertThrows(IllegalArgumentException.class, () ->
+                    processor.setMethodDiscount(PaymentProcessor.PaymentMethod.PAYPAL, -0.1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rule Configuration Tests")
+    class RuleConfigurationTests {
+
+        @Test
+        @DisplayName("Default rules keep the hard-coded rates")
+        void testDefaultRules() {
+            assertEquals(DiscountRules.DEFAULT, processor.getRules());
+            assertEquals(0.1, processor.getFirstOrderDiscount());
+            assertEquals(0.05, processor.getMethodDiscount(PaymentProcessor.PaymentMethod.CREDIT_CARD));
+            assertEquals(0.15, processor.getRules().getTaxRate());
+        }
+
+        @Test
+        @DisplayName("Rules loaded from properties drive pricing")
+        void testLoadedRules() {
+            Properties properties = new Properties();
+            properties.setProperty(DiscountRules.FIRST_ORDER_KEY, "0.2");
+            properties.setProperty(DiscountRules.METHOD_KEY_PREFIX + "PAYPAL", "0.05");
+
+            processor.setRules(DiscountRules.load(properties));
+
+            assertEquals(86.25, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.PAYPAL), 0.001);
+            assertEquals(109.25, processor.processPayment(100.0, false, PaymentProcessor.PaymentMethod.CREDIT_CARD), 0.001);
+        }
+
+        @Test
+        @DisplayName("The configured tax rate is charged on the discounted amount")
+        void testConfiguredTaxRate() {
+            Properties properties = new Properties();
+            properties.setProperty(DiscountRules.TAX_RATE_KEY, "0.2");
+
+            processor.setRules(DiscountRules.load(properties));
+
+            assertEquals(102.0, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD), 0.001);
+            assertEquals(120.0, processor.processPayment(100.0, false, PaymentProcessor.PaymentMethod.CASH), 0.001);
+        }
+
+        @Test
+        @DisplayName("Discounts that add up to more than 100% are rejected")
+        void testCombinedDiscountOverOne() {
+            Properties properties = new Properties();
+            properties.setProperty(DiscountRules.FIRST_ORDER_KEY, "0.6");
+            properties.setProperty(DiscountRules.METHOD_KEY_PREFIX + "CREDIT_CARD", "0.5");
+
+            assertThrows(IllegalArgumentException.class, () -> DiscountRules.load(properties));
+            processor.setFirstOrderDiscount(0.95);
+            assertThrows(IllegalArgumentException.class, () -> processor.setFirstOrderDiscount(0.96));
+            assertEquals(0.95, processor.getFirstOrderDiscount());
+        }
+
+        @Test
+        @DisplayName("Invalid configured rates are rejected")
+        void testInvalidConfiguredRate() {
+            Properties properties = new Properties();
+            properties.setProperty(DiscountRules.TAX_RATE_KEY, "fifteen");
+
+            assertThrows(IllegalArgumentException.class, () -> DiscountRules.load(properties));
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkout Breakdown Tests")
+    class CheckoutBreakdownTests {
+
+        @Test
+        @DisplayName("Breakdown matches processPayment, calculateDeliveryFee and the untaxed price")
+        void testBreakdownMatchesTwoCalls() {
+            PaymentProcessor untaxed = new PaymentProcessor(DiscountRules.DEFAULT.withTaxRate(0.0));
+            CheckoutBreakdown breakdown = new CheckoutBreakdown();
+            for (double amount : new double[]{0.01, 30.0, 46.0, 55.0, 100.0, 33.333}) {
+                for (PaymentProcessor.PaymentMethod method : PaymentProcessor.PaymentMethod.values()) {
+                    double finalAmount = processor.processPayment(amount, true, method);
+                    double deliveryFee = processor.calculateDeliveryFee(finalAmount);
+
+                    processor.checkout(amount, true, method, breakdown);
+
+                    assertEquals(finalAmount, breakdown.getFinalAmountCents() / 100.0);
+                    assertEquals(deliveryFee, breakdown.getDeliveryFeeCents() / 100.0);
+                    assertEquals(Math.round((finalAmount + deliveryFee) * 100), breakdown.getTotalCents());
+                    assertEquals(Math.round(untaxed.processPayment(amount, true, method) * 100),
+                            breakdown.getSubtotalCents() - breakdown.getDiscountCents());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Breakdown parts add up to the total")
+        void testBreakdownParts() {
+            CheckoutBreakdown breakdown = processor.checkout(40.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD,
+                    new CheckoutBreakdown());
+
+            assertEquals(4000, breakdown.getSubtotalCents());
+            assertEquals(600, breakdown.getDiscountCents());
+            assertEquals(510, breakdown.getTaxCents());
+            assertEquals(3910, breakdown.getFinalAmountCents());
+            assertEquals(500, breakdown.getDeliveryFeeCents());
+            assertEquals(4410, breakdown.getTotalCents());
+        }
+
+        @Test
+        @DisplayName("Checkout rejects non-positive amounts")
+        void testCheckoutInvalidAmount() {
+            assertThrows(IllegalArgumentException.class, () ->
+                    processor.checkout(0.0, false, PaymentProcessor.PaymentMethod.CASH, new CheckoutBreakdown()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Exception-free Validation Tests")
+    class ValidationModeTests {
+
+        @Test
+        @DisplayName("tryProcessPayment returns NaN instead of throwing")
+        void testTryProcessPayment() {
+            assertTrue(Double.isNaN(processor.tryProcessPayment(0.0, false, PaymentProcessor.PaymentMethod.CASH)));
+            assertTrue(Double.isNaN(processor.tryProcessPayment(-1.0, true, PaymentProcessor.PaymentMethod.PAYPAL)));
+            assertEquals(97.75, processor.tryProcessPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD), 0.001);
+        }
+
+        @Test
+        @DisplayName("Batch reports invalid rows in the status array")
+        void testBatchStatuses() {
+            double[] results = new double[3];
+            byte[] statuses = new byte[3];
+
+            int invalid = processor.processPayments(new double[]{100.0, 0.0, 30.0}, new boolean[3],
+                    new byte[]{2, 2, 2}, results, statuses);
+
+            assertEquals(1, invalid);
+            assertArrayEquals(new byte[]{PaymentProcessor.STATUS_OK, PaymentProcessor.STATUS_INVALID_AMOUNT,
+                    PaymentProcessor.STATUS_OK}, statuses);
+            assertEquals(115.0, results[0], 0.001);
+            assertTrue(Double.isNaN(results[1]));
+            assertEquals(34.5, results[2], 0.001);
+        }
+
+        @Test
+        @DisplayName("Batch reports unknown method ordinals in the status array")
+        void testBatchInvalidMethodStatus() {
+            double[] results = new double[2];
+            byte[] statuses = new byte[2];
+
+            int invalid = processor.processPayments(new double[]{100.0, 100.0}, new boolean[2],
+                    new byte[]{3, 2}, results, statuses);
+
+            assertEquals(1, invalid);
+            assertArrayEquals(new byte[]{PaymentProcessor.STATUS_INVALID_METHOD, PaymentProcessor.STATUS_OK}, statuses);
+            assertTrue(Double.isNaN(results[0]));
+        }
+    }
+
 }
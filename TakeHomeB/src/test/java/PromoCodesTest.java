@@ -0,0 +1,85 @@
+import org.example.PaymentProcessor;
+import org.example.PricingLatencyRecorder;
+import org.example.PromoCodes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the promo code table
+ */
+public class PromoCodesTest {
+
+    @Test
+    @DisplayName("Every valid code resolves to its own rate and unknown codes miss")
+    void testLookup() {
+        int n = 50_000;
+        String[] codes = new String[n];
+        double[] rates = new double[n];
+        for (int i = 0; i < n; i++) {
+            codes[i] = "PROMO" + i;
+            rates[i] = (1 + i % 50) / 100.0;
+        }
+
+        PromoCodes promoCodes = PromoCodes.build(codes, rates);
+
+        assertEquals(n, promoCodes.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(rates[i], promoCodes.discountFor(codes[i]), codes[i]);
+        }
+        for (int i = n; i < 2 * n; i++) {
+            assertFalse(promoCodes.contains("PROMO" + i), "PROMO" + i);
+            assertEquals(0.0, promoCodes.discountFor("PROMO" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Empty tables reject everything")
+    void testEmpty() {
+        PromoCodes promoCodes = PromoCodes.build(new String[0], new double[0]);
+
+        assertFalse(promoCodes.contains("ANY"));
+    }
+
+    @Test
+    @DisplayName("Duplicate codes and invalid rates are rejected")
+    void testInvalidInput() {
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class, () ->
+                PromoCodes.build(new String[]{"A", "B", "A", "C"}, new double[]{0.1, 0.1, 0.1, 0.1}));
+        assertEquals("Duplicate promo code: A", duplicate.getMessage());
+        assertThrows(IllegalArgumentException.class, () ->
+                PromoCodes.build(new String[]{"A"}, new double[]{1.5}));
+    }
+
+    @Test
+    @DisplayName("Valid codes add their rate to the discount, invalid codes change nothing")
+    void testProcessorPromo() {
+        PaymentProcessor processor = new PaymentProcessor();
+        processor.setPromoCodes(PromoCodes.build(new String[]{"SPRING10", "FREE"}, new double[]{0.1, 1.0}));
+
+        assertEquals(86.25, processor.processPaymentWithPromo(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD,
+                "SPRING10"), 0.001);
+        assertEquals(0.0, processor.processPaymentWithPromo(100.0, true, PaymentProcessor.PaymentMethod.CASH,
+                "FREE"), 0.001);
+        assertEquals(processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD),
+                processor.processPaymentWithPromo(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD, "BOGUS"));
+        assertThrows(IllegalArgumentException.class, () ->
+                processor.processPaymentWithPromo(0.0, false, PaymentProcessor.PaymentMethod.CASH, "SPRING10"));
+    }
+
+    @Test
+    @DisplayName("Promo payments are priced through the shared path and recorded like any other")
+    void testPromoRecorded() {
+        PaymentProcessor processor = new PaymentProcessor();
+        PricingLatencyRecorder recorder = new PricingLatencyRecorder();
+        processor.setLatencyRecorder(recorder);
+        processor.setPromoCodes(PromoCodes.build(new String[]{"SPRING10"}, new double[]{0.1}));
+        processor.setFirstOrderDiscount(0.2);
+
+        assertEquals(74.75, processor.processPaymentWithPromo(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD,
+                "SPRING10"), 0.001);
+        assertEquals(1, recorder.getPaymentHistogram(true, PaymentProcessor.PaymentMethod.CREDIT_CARD)
+                .getTotalCount());
+    }
+}
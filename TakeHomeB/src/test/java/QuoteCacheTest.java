@@ -0,0 +1,127 @@
+import org.example.PaymentProcessor;
+import org.example.PricingLatencyRecorder;
+import org.example.QuoteCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memoizing quote cache
+ */
+public class QuoteCacheTest {
+
+    private PaymentProcessor processor;
+    private QuoteCache cache;
+
+    @BeforeEach
+    void setUp() {
+        processor = new PaymentProcessor();
+        cache = new QuoteCache(processor, 64);
+    }
+
+    @Test
+    @DisplayName("Repeated quotes are served from the cache")
+    void testHitAfterMiss() {
+        double first = cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+        double second = cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+
+        assertEquals(97.75, first, 0.001);
+        assertEquals(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Flag and method are part of the key")
+    void testKeyIncludesFlagAndMethod() {
+        cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH);
+
+        assertEquals(115.0, cache.processPayment(100.0, false, PaymentProcessor.PaymentMethod.CASH), 0.001);
+        assertEquals(112.7, cache.processPayment(100.0, false, PaymentProcessor.PaymentMethod.PAYPAL), 0.001);
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Amounts that are not whole cents bypass the cache")
+    void testFractionalCentsBypass() {
+        double expected = processor.processPayment(33.333, true, PaymentProcessor.PaymentMethod.PAYPAL);
+
+        assertEquals(expected, cache.processPayment(33.333, true, PaymentProcessor.PaymentMethod.PAYPAL));
+        assertEquals(expected, cache.processPayment(33.333, true, PaymentProcessor.PaymentMethod.PAYPAL));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Rule changes invalidate cached quotes")
+    void testRuleChangeInvalidates() {
+        cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH);
+        processor.setFirstOrderDiscount(0.2);
+
+        assertEquals(92.0, cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH), 0.001);
+        assertEquals(92.0, cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH), 0.001);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("The cache stays bounded and correct under eviction and concurrent readers")
+    void testEvictionUnderConcurrency() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    double amount = 1 + (i % 1_000) / 100.0;
+                    double expected = processor.processPayment(amount, i % 2 == 0, PaymentProcessor.PaymentMethod.PAYPAL);
+                    double actual = cache.processPayment(amount, i % 2 == 0, PaymentProcessor.PaymentMethod.PAYPAL);
+                    if (expected != actual) {
+                        synchronized (failures) {
+                            failures.add(new AssertionError(amount + ": " + expected + " != " + actual));
+                        }
+                        return;
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(64, cache.capacity());
+        assertEquals(200_000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Quotes reach neither listeners nor the latency recorder, hit or miss")
+    void testQuotesAreNotPayments() {
+        List<Double> payments = new ArrayList<>();
+        processor.addPaymentListener((amount, isFirstOrder, method, finalAmount, taxAmount, deliveryFee) ->
+                payments.add(finalAmount));
+        PricingLatencyRecorder recorder = new PricingLatencyRecorder();
+        processor.setLatencyRecorder(recorder);
+
+        assertEquals(97.75, cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD));
+        assertEquals(97.75, cache.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD));
+        // not whole cents, so this one bypasses the cache
+        assertEquals(11.51, cache.processPayment(10.005, false, PaymentProcessor.PaymentMethod.CASH));
+
+        assertEquals(1, cache.getHitCount());
+        assertTrue(payments.isEmpty());
+        assertEquals(0, recorder.getPaymentHistogram(true, PaymentProcessor.PaymentMethod.CREDIT_CARD)
+                .getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Invalid amounts still throw")
+    void testInvalidAmount() {
+        assertThrows(IllegalArgumentException.class, () ->
+                cache.processPayment(0.0, false, PaymentProcessor.PaymentMethod.CASH));
+    }
+}
@@ -0,0 +1,103 @@
+import org.example.PaymentProcessor;
+import org.example.RollingPaymentTotals;
+import org.example.RollingPaymentTotals.Resolution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the sliding-window payment totals
+ */
+public class RollingPaymentTotalsTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private PaymentProcessor processor;
+    private RollingPaymentTotals totals;
+
+    @BeforeEach
+    void setUp() {
+        processor = new PaymentProcessor();
+        totals = new RollingPaymentTotals(now::get);
+        processor.addPaymentListener(totals);
+    }
+
+    @Test
+    @DisplayName("Totals are broken down by method and first order flag")
+    void testBreakdown() {
+        processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+        processor.processPayment(100.0, false, PaymentProcessor.PaymentMethod.CREDIT_CARD);
+        processor.processPayment(40.0, true, PaymentProcessor.PaymentMethod.CASH);
+
+        assertEquals(20_000, totals.getVolumeCents(Resolution.SECOND, 1, PaymentProcessor.PaymentMethod.CREDIT_CARD));
+        assertEquals(2, totals.getCount(Resolution.MINUTE, 1, PaymentProcessor.PaymentMethod.CREDIT_CARD));
+        assertEquals(0.1, totals.getAverageDiscount(Resolution.HOUR, 1, PaymentProcessor.PaymentMethod.CREDIT_CARD), 1e-9);
+        assertEquals(2, totals.getCount(Resolution.SECOND, 1, true));
+        assertEquals(1_900, totals.getDiscountCents(Resolution.SECOND, 1, true));
+        assertEquals(0.0, totals.getAverageDiscount(Resolution.SECOND, 1, PaymentProcessor.PaymentMethod.PAYPAL));
+    }
+
+    @Test
+    @DisplayName("Old windows drop out of the range and buckets are reused")
+    void testSliding() {
+        processor.processPayment(10.0, false, PaymentProcessor.PaymentMethod.CASH);
+        now.addAndGet(5_000);
+        processor.processPayment(20.0, false, PaymentProcessor.PaymentMethod.CASH);
+
+        assertEquals(2_000, totals.getVolumeCents(Resolution.SECOND, 5, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(3_000, totals.getVolumeCents(Resolution.SECOND, 6, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(3_000, totals.getVolumeCents(Resolution.MINUTE, 1, PaymentProcessor.PaymentMethod.CASH));
+
+        now.addAndGet(60_000);
+        processor.processPayment(30.0, false, PaymentProcessor.PaymentMethod.CASH);
+
+        assertEquals(3_000, totals.getVolumeCents(Resolution.SECOND, 60, PaymentProcessor.PaymentMethod.CASH));
+        assertEquals(1, totals.getCount(Resolution.SECOND, 60, false));
+    }
+
+    @Test
+    @DisplayName("Updates racing with a bucket rollover are all counted in the new window")
+    void testConcurrentRollover() throws InterruptedException {
+        int threads = 4;
+        int updates = 1_000;
+        for (int round = 0; round < 50; round++) {
+            // the same second bucket comes round again, so the first updates of every round reclaim it
+            now.addAndGet(60_000);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                writers[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < updates; i++) {
+                        totals.onPayment(10.0, false, PaymentProcessor.PaymentMethod.CASH, 11.5, 1.5, Double.NaN);
+                    }
+                });
+                writers[t].start();
+            }
+            start.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            assertEquals(threads * updates, totals.getCount(Resolution.SECOND, 1, PaymentProcessor.PaymentMethod.CASH),
+                    "round " + round);
+        }
+    }
+
+    @Test
+    @DisplayName("Window counts outside the ring are rejected")
+    void testInvalidWindows() {
+        assertThrows(IllegalArgumentException.class, () ->
+                totals.getCount(Resolution.HOUR, 25, PaymentProcessor.PaymentMethod.CASH));
+        assertThrows(IllegalArgumentException.class, () ->
+                totals.getCount(Resolution.SECOND, 0, true));
+    }
+}
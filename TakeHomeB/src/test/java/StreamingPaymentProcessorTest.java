@@ -0,0 +1,90 @@
+import org.example.DiscountRules;
+import org.example.PaymentColumnStore;
+import org.example.PaymentProcessor;
+import org.example.StreamingPaymentProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming stdin/stdout pricing mode
+ */
+public class StreamingPaymentProcessorTest {
+
+    private static String process(String input, int bufferSize) throws IOException {
+        return process(new PaymentProcessor(), input, bufferSize);
+    }
+
+    private static String process(PaymentProcessor processor, String input, int bufferSize) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new StreamingPaymentProcessor(processor, bufferSize).process(
+                Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))),
+                Channels.newChannel(output));
+        return output.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    @DisplayName("Prices each record of the stream into final amount, delivery fee and total")
+    void testStream() throws IOException {
+        assertEquals("97.75,0.00,97.75\n34.50,5.00,39.50\n67.62,0.00,67.62\n",
+                process("100.00,true,CREDIT_CARD\n30,false,CASH\r\n\n60.00,0,1", 1 << 16));
+        assertEquals("", process("", 1 << 16));
+    }
+
+    @Test
+    @DisplayName("Records split across reads are priced once and in order")
+    void testSmallBuffers() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 2_000; i++) {
+            lines.append(i).append(".25,false,CASH\n");
+            long total = i * 100L + 25 + (i < 50 ? 500 : 0);
+            expected.append(i).append(".25,").append(i < 50 ? "5.00," : "0.00,")
+                    .append(total / 100).append('.').append(String.format("%02d", total % 100)).append('\n');
+        }
+
+        // untaxed, so each total is the amount plus the delivery fee
+        assertEquals(expected.toString(), process(new PaymentProcessor(DiscountRules.DEFAULT.withTaxRate(0.0)),
+                lines.toString(), 160));
+    }
+
+    @Test
+    @DisplayName("Invalid records get an error line with their line number and the stream goes on")
+    void testInvalidRecords() throws IOException {
+        assertEquals("97.75,0.00,97.75\n"
+                        + "ERROR line 2: invalid first order flag\n"
+                        + "ERROR line 4: amount must be positive\n"
+                        + "ERROR line 5: invalid amount\n"
+                        + "ERROR line 6: expected 3 fields\n"
+                        + "34.50,5.00,39.50\n",
+                process("100.00,true,CREDIT_CARD\n30,yes,CASH\n\n0,false,CASH\nabc,true,CASH\n30\n"
+                        + "30,false,CASH\n", 160));
+    }
+
+    @Test
+    @DisplayName("Listeners see the delivery fee each record was charged")
+    void testListenersSeeDeliveryFee() throws IOException {
+        PaymentProcessor processor = new PaymentProcessor();
+        PaymentColumnStore store = new PaymentColumnStore(16);
+        processor.addPaymentListener(store);
+
+        process(processor, "100.00,true,CREDIT_CARD\n30,false,CASH\n", 160);
+
+        assertArrayEquals(new long[]{0, 0, 500},
+                store.sumByMethod(PaymentColumnStore.Column.DELIVERY_FEE, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Records longer than the buffer and undersized buffers are rejected")
+    void testInvalidInput() {
+        assertThrows(IOException.class, () -> process("1" + "0".repeat(200) + ",true,CASH\n", 160));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingPaymentProcessor(new PaymentProcessor(), 10));
+    }
+}
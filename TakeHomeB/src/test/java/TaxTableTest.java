@@ -0,0 +1,90 @@
+import org.example.PaymentProcessor;
+import org.example.TaxTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the off-heap postal code tax table
+ */
+public class TaxTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Known postal codes get their rate, unknown ones the default")
+    void testLookup() {
+        TaxTable table = TaxTable.builder(0.15)
+                .add("10115", 0.19)
+                .add("SW1A 1AA", 0.20)
+                .add("400001", 0.18)
+                .build();
+
+        assertEquals(3, table.size());
+        assertEquals(0.19, table.rateFor("10115"));
+        assertEquals(0.20, table.rateFor("sw1a-1aa"));
+        assertEquals(0.18, table.rateFor("400001"));
+        assertEquals(0.15, table.rateFor("1011"));
+    }
+
+    @Test
+    @DisplayName("Tables written to disk are memory-mapped back unchanged")
+    void testWriteAndOpen() throws IOException {
+        TaxTable.Builder builder = TaxTable.builder(0.1);
+        for (int code = 10_000; code < 20_000; code++) {
+            builder.add(Integer.toString(code), (code % 100) / 1000.0);
+        }
+        Path file = tempDir.resolve("tax.table");
+        builder.build().writeTo(file);
+
+        TaxTable table = TaxTable.open(file);
+
+        assertEquals(10_000, table.size());
+        assertEquals(0.1, table.getDefaultRate());
+        assertEquals(0.042, table.rateFor("12342"));
+        assertEquals(0.1, table.rateFor("20000"));
+    }
+
+    @Test
+    @DisplayName("Rates finer than a basis point are kept exactly, also through a file")
+    void testFineRate() throws IOException {
+        TaxTable table = TaxTable.builder(0).add("10001", 0.08875).build();
+        assertEquals(0.08875, table.rateFor("10001"));
+
+        Path file = tempDir.resolve("tax.table");
+        table.writeTo(file);
+        assertEquals(0.08875, TaxTable.open(file).rateFor("10001"));
+
+        PaymentProcessor processor = new PaymentProcessor();
+        processor.setTaxTable(table);
+        assertEquals(979.88, processor.processPayment(1000.0, true, PaymentProcessor.PaymentMethod.CASH, "10001"));
+    }
+
+    @Test
+    @DisplayName("Invalid postal codes are rejected")
+    void testInvalidPostalCode() {
+        assertThrows(IllegalArgumentException.class, () -> TaxTable.key("123456789"));
+        assertThrows(IllegalArgumentException.class, () -> TaxTable.key(" - "));
+    }
+
+    @Test
+    @DisplayName("Processor uses the installed table and falls back to the rules rate")
+    void testProcessorTaxRate() {
+        PaymentProcessor processor = new PaymentProcessor();
+        assertEquals(0.15, processor.taxRateFor("10115"));
+        assertEquals(103.5, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH, "10115"));
+
+        processor.setTaxTable(TaxTable.builder(0.15).add("10115", 0.19).add("75001", 0.0).build());
+
+        assertEquals(0.19, processor.taxRateFor("10115"));
+        assertEquals(107.1, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH, "10115"));
+        assertEquals(90.0, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH, "75001"));
+        assertEquals(103.5, processor.processPayment(100.0, true, PaymentProcessor.PaymentMethod.CASH, "20095"));
+    }
+}
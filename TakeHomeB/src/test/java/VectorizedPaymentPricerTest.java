@@ -0,0 +1,71 @@
+import org.example.PaymentProcessor;
+import org.example.VectorizedPaymentPricer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SIMD bulk pricing, run with or without the incubator module
+ */
+public class VectorizedPaymentPricerTest {
+
+    @Test
+    @DisplayName("Vector results equal the scalar methods bit for bit")
+    void testMatchesScalar() {
+        PaymentProcessor processor = new PaymentProcessor();
+        int n = 10_007;
+        Random random = new Random(7);
+        double[] amounts = new double[n];
+        boolean[] firstOrders = new boolean[n];
+        byte[] methods = new byte[n];
+        for (int i = 0; i < n; i++) {
+            amounts[i] = i % 2 == 0 ? 0.01 + random.nextInt(10_000) / 100.0 : 0.001 + random.nextDouble() * 100;
+            firstOrders[i] = random.nextBoolean();
+            methods[i] = (byte) random.nextInt(PaymentProcessor.PaymentMethod.values().length);
+        }
+
+        double[] results = new double[n];
+        double[] fees = new double[n];
+        new VectorizedPaymentPricer(processor).processPayments(amounts, firstOrders, methods, results, fees);
+
+        for (int i = 0; i < n; i++) {
+            double expected = processor.processPayment(amounts[i], firstOrders[i],
+                    PaymentProcessor.PaymentMethod.values()[methods[i]]);
+            assertEquals(expected, results[i], "Row " + i);
+            assertEquals(processor.calculateDeliveryFee(expected), fees[i], "Fee of row " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid amounts fail the call")
+    void testInvalidAmount() {
+        double[] amounts = new double[64];
+        Arrays.fill(amounts, 25.0);
+        amounts[5] = 0.0;
+
+        assertThrows(IllegalArgumentException.class, () -> new VectorizedPaymentPricer(new PaymentProcessor())
+                .processPayments(amounts, new boolean[64], new byte[64], new double[64], new double[64]));
+    }
+
+    @Test
+    @DisplayName("Unknown method ordinals fail the call")
+    void testInvalidMethod() {
+        double[] amounts = new double[64];
+        Arrays.fill(amounts, 25.0);
+        byte[] methods = new byte[64];
+        methods[3] = 3;
+        double[] tailAmounts = new double[67];
+        Arrays.fill(tailAmounts, 25.0);
+        byte[] tailMethods = new byte[67];
+        tailMethods[66] = 3;
+
+        assertThrows(IllegalArgumentException.class, () -> new VectorizedPaymentPricer(new PaymentProcessor())
+                .processPayments(amounts, new boolean[64], methods, new double[64], new double[64]));
+        assertThrows(IllegalArgumentException.class, () -> new VectorizedPaymentPricer(new PaymentProcessor())
+                .processPayments(tailAmounts, new boolean[67], tailMethods, new double[67], new double[67]));
+    }
+}